@@ -0,0 +1,96 @@
+package com.mentor.club.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The application data source: the primary pool, plus one pool per read replica for read only transactions. Without
+ * replica urls every connection comes from the primary.
+ */
+@Configuration
+public class DataSourceRoutingConfig {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DataSourceRoutingConfig.class);
+
+    private static final String HIKARI_PROPERTIES_PREFIX = "spring.datasource.hikari";
+    private static final String PRIMARY_POOL_NAME = "primary";
+    private static final String REPLICA_POOL_NAME_PREFIX = "replica-";
+
+    @Value("${datasource-routing.replica-urls:}")
+    private String[] replicaUrls;
+
+    @Value("${datasource-routing.replica-maximum-pool-size:10}")
+    private int replicaMaximumPoolSize;
+
+    private final List<HikariDataSource> pools = new ArrayList<>();
+
+    @Bean
+    @Primary
+    public DataSource dataSource(DataSourceProperties dataSourceProperties, Environment environment, MeterRegistry meterRegistry) {
+        HikariDataSource primary = createPool(dataSourceProperties, dataSourceProperties.determineUrl(), environment, meterRegistry);
+
+        primary.setPoolName(PRIMARY_POOL_NAME);
+
+        List<HikariDataSource> replicas = new ArrayList<>();
+
+        for (String replicaUrl : replicaUrls) {
+            if (replicaUrl.trim().isEmpty()) {
+                continue;
+            }
+
+            HikariDataSource replica = createPool(dataSourceProperties, replicaUrl.trim(), environment, meterRegistry);
+
+            replica.setPoolName(REPLICA_POOL_NAME_PREFIX + replicas.size());
+            replica.setMaximumPoolSize(replicaMaximumPoolSize);
+            replica.setReadOnly(true);
+            replicas.add(replica);
+        }
+
+        LOGGER.info("Routing read only transactions to " + replicas.size() + " replicas.");
+
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy();
+
+        // set up front, otherwise the proxy opens a connection at startup to read them
+        dataSource.setDefaultAutoCommit(true);
+        dataSource.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        dataSource.setTargetDataSource(new ReplicaRoutingDataSource(primary, replicas));
+        dataSource.afterPropertiesSet();
+
+        return dataSource;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pools.forEach(HikariDataSource::close);
+    }
+
+    private HikariDataSource createPool(DataSourceProperties dataSourceProperties, String url, Environment environment, MeterRegistry meterRegistry) {
+        HikariDataSource pool = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .url(url)
+                .build();
+
+        Binder.get(environment).bind(HIKARI_PROPERTIES_PREFIX, Bindable.ofInstance(pool));
+        pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        pools.add(pool);
+
+        return pool;
+    }
+}
@@ -0,0 +1,57 @@
+package com.mentor.club.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands out replica connections, round robin, to read only transactions named {@link #REPLICA_TRANSACTION_NAME} and
+ * primary connections to everything else. Repository methods run in read only transactions of their own by default,
+ * so replica reads are opted into by name, together with their handling of replica lag.
+ * Has to be wrapped in a LazyConnectionDataSourceProxy, the transaction managers fetch their connection before the
+ * transaction is marked read only.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+    public static final String REPLICA_TRANSACTION_NAME = "replica-read";
+
+    static final String PRIMARY_KEY = "primary";
+    static final String REPLICA_KEY_PREFIX = "replica-";
+
+    private final List<String> replicaKeys = new ArrayList<>();
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<? extends DataSource> replicas) {
+        Map<Object, Object> targetDataSources = new HashMap<>();
+
+        targetDataSources.put(PRIMARY_KEY, primary);
+
+        for (int i = 0; i < replicas.size(); i++) {
+            String replicaKey = REPLICA_KEY_PREFIX + i;
+
+            targetDataSources.put(replicaKey, replicas.get(i));
+            replicaKeys.add(replicaKey);
+        }
+
+        setTargetDataSources(targetDataSources);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (replicaKeys.isEmpty()
+                || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                || !REPLICA_TRANSACTION_NAME.equals(TransactionSynchronizationManager.getCurrentTransactionName())) {
+            return PRIMARY_KEY;
+        }
+
+        return replicaKeys.get(Math.floorMod(nextReplica.getAndIncrement(), replicaKeys.size()));
+    }
+}
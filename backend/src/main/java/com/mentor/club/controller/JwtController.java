@@ -5,6 +5,7 @@ import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
 import io.swagger.annotations.ApiResponse;
 import io.swagger.annotations.ApiResponses;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -48,8 +49,12 @@ class JwtController {
 
     @GetMapping
     @RequestMapping("/public-key")
-    @ApiOperation(value = "Request the public key")
-    public ResponseEntity getPublicKey() {
-        return jwtService.getPublicKey();
+    @ApiOperation(value = "Request the public keys as a JSON Web Key Set")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Public keys"),
+            @ApiResponse(code = 304, message = "Public keys not modified"),
+    })
+    public ResponseEntity getPublicKey(@RequestHeader(name = HttpHeaders.IF_NONE_MATCH) Optional<String> ifNoneMatch) {
+        return jwtService.getPublicKey(ifNoneMatch);
     }
 }
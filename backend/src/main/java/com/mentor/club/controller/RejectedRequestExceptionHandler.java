@@ -0,0 +1,42 @@
+package com.mentor.club.controller;
+
+import com.mentor.club.exception.PasswordHashingRejectedException;
+import com.mentor.club.exception.RateLimitedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * Answers requests that were turned away because the service is saturated or the client exceeded its rate limit, with a Retry-After header so that clients
+ * back off instead of retrying right away
+ */
+@RestControllerAdvice
+public class RejectedRequestExceptionHandler {
+    private static final Logger LOGGER = LoggerFactory.getLogger(RejectedRequestExceptionHandler.class);
+
+    @Value("${password-hashing.retry-after-in-seconds:1}")
+    private long passwordHashingRetryAfterInSeconds;
+
+    @ExceptionHandler(PasswordHashingRejectedException.class)
+    public ResponseEntity<String> handlePasswordHashingRejected(PasswordHashingRejectedException exception) {
+        LOGGER.warn("Rejected request, " + exception.getErrorDescription());
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(passwordHashingRetryAfterInSeconds))
+                .body(exception.getErrorDescription());
+    }
+
+    @ExceptionHandler(RateLimitedException.class)
+    public ResponseEntity<String> handleRateLimited(RateLimitedException exception) {
+        LOGGER.warn("Rejected request, " + exception.getErrorDescription());
+
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(exception.getRetryAfterInSeconds()))
+                .body(exception.getErrorDescription());
+    }
+}
@@ -5,12 +5,17 @@ import com.mentor.club.model.password.ChangeForgottenPasswordRequest;
 import com.mentor.club.model.password.ChangePasswordRequest;
 import com.mentor.club.model.user.NewUser;
 import com.mentor.club.service.PasswordService;
+import com.mentor.club.service.RateLimiterService;
 import com.mentor.club.service.UserService;
+import com.mentor.club.service.UserThumbnailService;
 import io.swagger.annotations.*;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import java.util.Optional;
 import java.util.UUID;
 
 @CrossOrigin
@@ -18,12 +23,30 @@ import java.util.UUID;
 @RequestMapping("/user")
 @Api(value = "User authentication")
 public class UserController {
+    /**
+     * Rate limit policies of rate-limiting.policies, checked before any password hashing or db work
+     */
+    private static final String AUTHENTICATE_CLIENT_POLICY = "authenticate-client";
+    private static final String AUTHENTICATE_USERNAME_POLICY = "authenticate-username";
+    private static final String CHANGE_PASSWORD_CLIENT_POLICY = "change-password-client";
+    private static final String CHANGE_PASSWORD_USERNAME_POLICY = "change-password-username";
+    private static final String CHANGE_FORGOTTEN_PASSWORD_CLIENT_POLICY = "change-forgotten-password-client";
+    private static final String RESET_FORGOTTEN_PASSWORD_CLIENT_POLICY = "reset-forgotten-password-client";
+    private static final String RESET_FORGOTTEN_PASSWORD_EMAIL_POLICY = "reset-forgotten-password-email";
+
     private UserService userService;
     private PasswordService passwordService;
+    private UserThumbnailService userThumbnailService;
+    private RateLimiterService rateLimiterService;
 
-    public UserController(UserService userService, PasswordService passwordService) {
+    public UserController(UserService userService,
+                          PasswordService passwordService,
+                          UserThumbnailService userThumbnailService,
+                          RateLimiterService rateLimiterService) {
         this.userService = userService;
         this.passwordService = passwordService;
+        this.userThumbnailService = userThumbnailService;
+        this.rateLimiterService = rateLimiterService;
     }
 
     @PostMapping
@@ -33,10 +56,16 @@ public class UserController {
             @ApiResponse(code = 200, message = "Authorized"),
             @ApiResponse(code = 401, message = "Unauthorized"),
             @ApiResponse(code = 404, message = "User not found"),
+            @ApiResponse(code = 429, message = "Too many requests, retry after the Retry-After header"),
+            @ApiResponse(code = 503, message = "Password hashing saturated, retry after the Retry-After header"),
     })
     public ResponseEntity authenticate(@ApiParam(value = "Credentials in JSON format 'username/password'")
                                        @RequestBody AuthenticationRequest authentication,
+                                       HttpServletRequest request,
                                        HttpServletResponse response) {
+        rateLimiterService.acquire(AUTHENTICATE_CLIENT_POLICY, request.getRemoteAddr());
+        rateLimiterService.acquire(AUTHENTICATE_USERNAME_POLICY, authentication.getUsername());
+
         return userService.authenticate(authentication, response);
     }
 
@@ -45,6 +74,7 @@ public class UserController {
     @ApiResponses(value = {
             @ApiResponse(code = 201, message = "Created"),
             @ApiResponse(code = 401, message = "Unauthorized"),
+            @ApiResponse(code = 503, message = "Password hashing saturated, retry after the Retry-After header"),
     })
     public ResponseEntity createNewUser(@ApiParam(value = "New user request") @RequestBody NewUser newUser) {
         return userService.createNewUser(newUser);
@@ -81,8 +111,13 @@ public class UserController {
     @ApiResponses(value = {
             @ApiResponse(code = 200, message = "Authorized"),
             @ApiResponse(code = 404, message = "User not found"),
+            @ApiResponse(code = 429, message = "Too many requests, retry after the Retry-After header"),
     })
-    public ResponseEntity generateResetForgottenPasswordEmail(@ApiParam(value = "Reset password") @RequestParam String email) {
+    public ResponseEntity generateResetForgottenPasswordEmail(@ApiParam(value = "Reset password") @RequestParam String email,
+                                                              HttpServletRequest request) {
+        rateLimiterService.acquire(RESET_FORGOTTEN_PASSWORD_CLIENT_POLICY, request.getRemoteAddr());
+        rateLimiterService.acquire(RESET_FORGOTTEN_PASSWORD_EMAIL_POLICY, email);
+
         return passwordService.generateResetForgottenPasswordEmail(email);
     }
 
@@ -92,9 +127,13 @@ public class UserController {
     @ApiResponses(value = {
             @ApiResponse(code = 200, message = "Authorized"),
             @ApiResponse(code = 401, message = "Invalid password"),
+            @ApiResponse(code = 429, message = "Too many requests, retry after the Retry-After header"),
     })
     public ResponseEntity changeForgottenPassword(@ApiParam(value = "Reset password")
-                                                  @RequestBody ChangeForgottenPasswordRequest changeForgottenPasswordRequest) {
+                                                  @RequestBody ChangeForgottenPasswordRequest changeForgottenPasswordRequest,
+                                                  HttpServletRequest request) {
+        rateLimiterService.acquire(CHANGE_FORGOTTEN_PASSWORD_CLIENT_POLICY, request.getRemoteAddr());
+
         return passwordService.changeForgottenPassword(changeForgottenPasswordRequest);
     }
 
@@ -104,9 +143,14 @@ public class UserController {
     @ApiResponses(value = {
             @ApiResponse(code = 200, message = "Authorized"),
             @ApiResponse(code = 401, message = "Invalid password"),
+            @ApiResponse(code = 429, message = "Too many requests, retry after the Retry-After header"),
     })
     public ResponseEntity changePassword(@RequestBody ChangePasswordRequest changePasswordRequest,
-                                         @RequestHeader(name = "Authorization") String authorization) {
+                                         @RequestHeader(name = "Authorization") String authorization,
+                                         HttpServletRequest request) {
+        rateLimiterService.acquire(CHANGE_PASSWORD_CLIENT_POLICY, request.getRemoteAddr());
+        rateLimiterService.acquire(CHANGE_PASSWORD_USERNAME_POLICY, changePasswordRequest.getUsername());
+
         return passwordService.changePassword(changePasswordRequest, authorization);
     }
 
@@ -134,4 +178,17 @@ public class UserController {
                                          @RequestParam UUID deviceId) {
         return userService.deleteUser(authorization, deviceId);
     }
+
+    @GetMapping
+    @RequestMapping("/{userId}/thumbnail")
+    @ApiOperation(value = "Request the thumbnail of a user")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Thumbnail"),
+            @ApiResponse(code = 304, message = "Thumbnail not modified"),
+            @ApiResponse(code = 404, message = "Thumbnail not found"),
+    })
+    public ResponseEntity getThumbnail(@ApiParam(value = "User id") @PathVariable UUID userId,
+                                       @RequestHeader(name = HttpHeaders.IF_NONE_MATCH) Optional<String> ifNoneMatch) {
+        return userThumbnailService.getThumbnail(userId, ifNoneMatch);
+    }
 }
@@ -0,0 +1,14 @@
+package com.mentor.club.exception;
+
+import com.mentor.club.model.error.HttpCallError;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Password hashing is saturated, the request is answered with 503 and a Retry-After header instead of queueing it
+ * behind the others
+ */
+public class PasswordHashingRejectedException extends InternalException {
+    public PasswordHashingRejectedException(String errorDescriptionDetails) {
+        super(HttpStatus.SERVICE_UNAVAILABLE, HttpCallError.SERVICE_UNAVAILABLE, errorDescriptionDetails);
+    }
+}
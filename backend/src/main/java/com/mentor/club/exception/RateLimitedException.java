@@ -0,0 +1,23 @@
+package com.mentor.club.exception;
+
+import com.mentor.club.model.error.HttpCallError;
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+/**
+ * The client or the account used up the requests its rate limit allows, the request is answered with 429 and a
+ * Retry-After header before any password hashing or db work is done
+ */
+public class RateLimitedException extends InternalException {
+    /**
+     * Seconds until the rate limit allows the next request
+     */
+    @Getter
+    private final long retryAfterInSeconds;
+
+    public RateLimitedException(String errorDescriptionDetails, long retryAfterInSeconds) {
+        super(HttpStatus.TOO_MANY_REQUESTS, HttpCallError.TOO_MANY_REQUESTS, errorDescriptionDetails);
+
+        this.retryAfterInSeconds = retryAfterInSeconds;
+    }
+}
@@ -2,12 +2,21 @@ package com.mentor.club.model;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 
+import com.mentor.club.model.authentication.key.JsonWebKey;
 import lombok.Getter;
 import lombok.Setter;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class PublicKeyResponse {
     @Getter
     @Setter
     @JsonProperty("publicKey")
     private String publicKey;
+
+    @Getter
+    @Setter
+    @JsonProperty("keys")
+    private List<JsonWebKey> keys = new ArrayList<>();
 }
@@ -38,7 +38,7 @@ public class AuthenticationResult {
     String displayName;
 
     @JsonProperty
-    @ApiModelProperty(notes = "The thumbnail photo link", required = true)
+    @ApiModelProperty(notes = "The versioned thumbnail photo url, null if the user has no thumbnail")
     String thumbnailPhoto;
 
     @JsonProperty
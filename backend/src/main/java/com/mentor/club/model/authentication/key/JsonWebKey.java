@@ -0,0 +1,115 @@
+package com.mentor.club.model.authentication.key;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Getter;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPublicKey;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Public part of a signing key in JWK format (RFC 7517)
+ */
+@Getter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class JsonWebKey {
+    private static final String P256_CURVE = "P-256";
+    private static final int P256_COORDINATE_LENGTH = 32;
+
+    @JsonProperty("kty")
+    private final String keyType;
+
+    @JsonProperty("use")
+    private final String use = "sig";
+
+    @JsonProperty("alg")
+    private final String algorithm;
+
+    @JsonProperty("kid")
+    private final String keyId;
+
+    @JsonProperty("n")
+    private String modulus;
+
+    @JsonProperty("e")
+    private String exponent;
+
+    @JsonProperty("crv")
+    private String curve;
+
+    @JsonProperty("x")
+    private String x;
+
+    @JsonProperty("y")
+    private String y;
+
+    private JsonWebKey(String keyType, String algorithm, String keyId) {
+        this.keyType = keyType;
+        this.algorithm = algorithm;
+        this.keyId = keyId;
+    }
+
+    public static JsonWebKey fromRsaPublicKey(RSAPublicKey publicKey) {
+        String modulus = encodeUnsigned(publicKey.getModulus(), 0);
+        String exponent = encodeUnsigned(publicKey.getPublicExponent(), 0);
+        JsonWebKey jsonWebKey = new JsonWebKey("RSA", SigningAlgorithm.RS256.name(),
+                computeThumbprint("{\"e\":\"" + exponent + "\",\"kty\":\"RSA\",\"n\":\"" + modulus + "\"}"));
+
+        jsonWebKey.modulus = modulus;
+        jsonWebKey.exponent = exponent;
+
+        return jsonWebKey;
+    }
+
+    public static JsonWebKey fromEcPublicKey(ECPublicKey publicKey) {
+        String xCoordinate = encodeUnsigned(publicKey.getW().getAffineX(), P256_COORDINATE_LENGTH);
+        String yCoordinate = encodeUnsigned(publicKey.getW().getAffineY(), P256_COORDINATE_LENGTH);
+        JsonWebKey jsonWebKey = new JsonWebKey("EC", SigningAlgorithm.ES256.name(),
+                computeThumbprint("{\"crv\":\"" + P256_CURVE + "\",\"kty\":\"EC\",\"x\":\"" + xCoordinate + "\",\"y\":\"" + yCoordinate + "\"}"));
+
+        jsonWebKey.curve = P256_CURVE;
+        jsonWebKey.x = xCoordinate;
+        jsonWebKey.y = yCoordinate;
+
+        return jsonWebKey;
+    }
+
+    /**
+     * JWK thumbprint (RFC 7638), used as the kid so that the same key always gets the same id
+     */
+    private static String computeThumbprint(String canonicalJson) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(canonicalJson.getBytes(StandardCharsets.UTF_8));
+
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    /**
+     * @param length fixed output length in bytes, 0 to keep the minimal big-endian representation
+     */
+    private static String encodeUnsigned(BigInteger value, int length) {
+        byte[] bytes = value.toByteArray();
+
+        if (bytes.length > 1 && bytes[0] == 0) {
+            bytes = Arrays.copyOfRange(bytes, 1, bytes.length);
+        }
+
+        if (bytes.length < length) {
+            byte[] paddedBytes = new byte[length];
+
+            System.arraycopy(bytes, 0, paddedBytes, length - bytes.length, bytes.length);
+            bytes = paddedBytes;
+        }
+
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
@@ -0,0 +1,66 @@
+package com.mentor.club.model.authentication.key;
+
+import com.auth0.jwt.algorithms.Algorithm;
+import lombok.Getter;
+
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+
+/**
+ * Supported JWS signing algorithms. EdDSA is not offered because java-jwt does not implement it.
+ */
+public enum SigningAlgorithm {
+    RS256("RSA") {
+        @Override
+        public Algorithm createAlgorithm(PublicKey publicKey, PrivateKey privateKey) {
+            return Algorithm.RSA256((RSAPublicKey) publicKey, (RSAPrivateKey) privateKey);
+        }
+
+        @Override
+        public JsonWebKey createJsonWebKey(PublicKey publicKey) {
+            return JsonWebKey.fromRsaPublicKey((RSAPublicKey) publicKey);
+        }
+    },
+    ES256("EC") {
+        @Override
+        public Algorithm createAlgorithm(PublicKey publicKey, PrivateKey privateKey) {
+            return Algorithm.ECDSA256((ECPublicKey) publicKey, (ECPrivateKey) privateKey);
+        }
+
+        @Override
+        public JsonWebKey createJsonWebKey(PublicKey publicKey) {
+            return JsonWebKey.fromEcPublicKey((ECPublicKey) publicKey);
+        }
+    };
+
+    /**
+     * Algorithm name for java.security.KeyFactory
+     */
+    @Getter
+    private final String keyFactoryAlgorithm;
+
+    SigningAlgorithm(String keyFactoryAlgorithm) {
+        this.keyFactoryAlgorithm = keyFactoryAlgorithm;
+    }
+
+    /**
+     * @param privateKey null for keys that are only used for verification
+     */
+    public abstract Algorithm createAlgorithm(PublicKey publicKey, PrivateKey privateKey);
+
+    public abstract JsonWebKey createJsonWebKey(PublicKey publicKey);
+
+    public static SigningAlgorithm fromPublicKey(PublicKey publicKey) {
+        for (SigningAlgorithm signingAlgorithm : values()) {
+            if (signingAlgorithm.getKeyFactoryAlgorithm().equals(publicKey.getAlgorithm())) {
+                return signingAlgorithm;
+            }
+        }
+
+        throw new IllegalStateException("Unexpected value for key algorithm: " + publicKey.getAlgorithm());
+    }
+}
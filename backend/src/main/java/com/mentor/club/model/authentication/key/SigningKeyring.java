@@ -0,0 +1,103 @@
+package com.mentor.club.model.authentication.key;
+
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.mentor.club.model.PublicKeyResponse;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.util.*;
+
+/**
+ * Immutable set of keys: one signing key and any number of retired keys that are still accepted for verification.
+ * Retired keys may use a different algorithm than the signing key, e.g. RS256 keys during a migration to ES256.
+ */
+public final class SigningKeyring {
+    private final Map<String, Algorithm> verificationAlgorithmsById = new LinkedHashMap<>();
+
+    @Getter
+    private final String signingKeyId;
+
+    @Getter
+    private final Algorithm signingAlgorithm;
+
+    @Getter
+    private final PublicKeyResponse publicKeyResponse = new PublicKeyResponse();
+
+    /**
+     * Strong entity tag of the published key set
+     */
+    @Getter
+    private final String entityTag;
+
+    /**
+     * @param signingPrivateKey null in verify-only mode
+     */
+    public SigningKeyring(SigningAlgorithm algorithm, PublicKey signingPublicKey, PrivateKey signingPrivateKey, List<PublicKey> retiredPublicKeys) {
+        List<JsonWebKey> jsonWebKeys = new ArrayList<>();
+        JsonWebKey signingJsonWebKey = algorithm.createJsonWebKey(signingPublicKey);
+
+        this.signingKeyId = signingJsonWebKey.getKeyId();
+        this.signingAlgorithm = algorithm.createAlgorithm(signingPublicKey, signingPrivateKey);
+
+        jsonWebKeys.add(signingJsonWebKey);
+        verificationAlgorithmsById.put(signingKeyId, signingAlgorithm);
+
+        for (PublicKey retiredPublicKey : retiredPublicKeys) {
+            SigningAlgorithm retiredAlgorithm = SigningAlgorithm.fromPublicKey(retiredPublicKey);
+            JsonWebKey retiredJsonWebKey = retiredAlgorithm.createJsonWebKey(retiredPublicKey);
+
+            if (!verificationAlgorithmsById.containsKey(retiredJsonWebKey.getKeyId())) {
+                verificationAlgorithmsById.put(retiredJsonWebKey.getKeyId(), retiredAlgorithm.createAlgorithm(retiredPublicKey, null));
+                jsonWebKeys.add(retiredJsonWebKey);
+            }
+        }
+
+        this.entityTag = computeEntityTag(verificationAlgorithmsById.keySet());
+
+        publicKeyResponse.setPublicKey(toPem(signingPublicKey));
+        publicKeyResponse.setKeys(Collections.unmodifiableList(jsonWebKeys));
+    }
+
+    public Set<String> getKeyIds() {
+        return Collections.unmodifiableSet(verificationAlgorithmsById.keySet());
+    }
+
+    /**
+     * Looks the key up by kid. Tokens issued before key ids were introduced carry no kid,
+     * those are verified with the first key of the algorithm named in their header.
+     *
+     * @return null if no key of the keyring may verify the token
+     */
+    public Algorithm getVerificationAlgorithm(DecodedJWT decodedJWT) {
+        Algorithm algorithm = decodedJWT.getKeyId() == null
+                ? verificationAlgorithmsById.values().stream().filter(candidate -> candidate.getName().equals(decodedJWT.getAlgorithm())).findFirst().orElse(null)
+                : verificationAlgorithmsById.get(decodedJWT.getKeyId());
+
+        if (algorithm == null || !algorithm.getName().equals(decodedJWT.getAlgorithm())) {
+            return null;
+        }
+
+        return algorithm;
+    }
+
+    private static String computeEntityTag(Collection<String> keyIds) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(String.join(".", keyIds).getBytes(StandardCharsets.UTF_8));
+
+            return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(digest) + "\"";
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    private static String toPem(PublicKey publicKey) {
+        return "-----BEGIN PUBLIC KEY-----\n"
+                + Base64.getMimeEncoder(64, "\n".getBytes(StandardCharsets.UTF_8)).encodeToString(publicKey.getEncoded())
+                + "\n-----END PUBLIC KEY-----\n";
+    }
+}
@@ -0,0 +1,117 @@
+package com.mentor.club.model.authentication.revocation;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter over token ids, 64 bits packed into each long. Lookups and insertions are lock-free.
+ * Entries are never removed, a filter is dropped as a whole once none of its entries is needed anymore.
+ */
+public class BloomFilter {
+    private final AtomicLongArray words;
+    private final int bitCount;
+    private final int hashFunctionCount;
+    private final AtomicInteger entryCount = new AtomicInteger();
+
+    public BloomFilter(int expectedInsertions, double falsePositiveProbability) {
+        if (expectedInsertions <= 0 || falsePositiveProbability <= 0 || falsePositiveProbability >= 1) {
+            throw new IllegalArgumentException("Expected insertions must be positive and false positive probability within (0, 1)");
+        }
+
+        this.bitCount = (int) Math.ceil(-expectedInsertions * Math.log(falsePositiveProbability) / (Math.log(2) * Math.log(2)));
+        this.hashFunctionCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+        this.words = new AtomicLongArray((bitCount + Long.SIZE - 1) / Long.SIZE);
+    }
+
+    /**
+     * Ids that already appear to be contained are not counted again, e.g. when a revocation is synchronized twice
+     */
+    public void add(UUID tokenId) {
+        boolean isNew = false;
+
+        for (int index : getBitIndexes(tokenId)) {
+            isNew |= setBit(index);
+        }
+
+        if (isNew) {
+            entryCount.incrementAndGet();
+        }
+    }
+
+    public boolean mightContain(UUID tokenId) {
+        for (int index : getBitIndexes(tokenId)) {
+            if ((words.get(index / Long.SIZE) & getMask(index)) == 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    public int getEntryCount() {
+        return entryCount.get();
+    }
+
+    public long getMemoryInBytes() {
+        return (long) words.length() * Long.BYTES;
+    }
+
+    /**
+     * Expected false positive probability for the current number of entries
+     */
+    public double getFalsePositiveProbability() {
+        double exponent = -(double) hashFunctionCount * entryCount.get() / bitCount;
+
+        return Math.pow(1 - Math.exp(exponent), hashFunctionCount);
+    }
+
+    /**
+     * Double hashing over both halves of the id, ids are random so mixing each half is enough
+     */
+    private int[] getBitIndexes(UUID tokenId) {
+        long firstHash = mix(tokenId.getMostSignificantBits());
+        long secondHash = mix(tokenId.getLeastSignificantBits()) | 1;
+        int[] indexes = new int[hashFunctionCount];
+
+        for (int hashFunction = 0; hashFunction < hashFunctionCount; hashFunction++) {
+            indexes[hashFunction] = (int) Math.floorMod(firstHash + hashFunction * secondHash, (long) bitCount);
+        }
+
+        return indexes;
+    }
+
+    /**
+     * @return true if the bit was not set before
+     */
+    private boolean setBit(int index) {
+        int wordIndex = index / Long.SIZE;
+        long mask = getMask(index);
+
+        while (true) {
+            long word = words.get(wordIndex);
+
+            if ((word & mask) != 0) {
+                return false;
+            }
+
+            if (words.compareAndSet(wordIndex, word, word | mask)) {
+                return true;
+            }
+        }
+    }
+
+    private static long getMask(int index) {
+        return 1L << (index % Long.SIZE);
+    }
+
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb93fe53fe6b4L;
+        value ^= value >>> 33;
+
+        return value;
+    }
+}
@@ -0,0 +1,34 @@
+package com.mentor.club.model.authentication.revocation;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * Id of an access token that was deleted before it expired, kept until the token expires
+ */
+@Entity
+@NoArgsConstructor
+@Getter
+public class RevokedAccessToken {
+    @Id
+    @Column(name = "tokenId", columnDefinition = "uuid")
+    private UUID tokenId;
+
+    @Column(name = "expirationDate", nullable = false)
+    private Date expirationDate;
+
+    @Column(name = "revokedAt", nullable = false)
+    private Date revokedAt;
+
+    public RevokedAccessToken(UUID tokenId, Date expirationDate) {
+        this.tokenId = tokenId;
+        this.expirationDate = expirationDate;
+        this.revokedAt = new Date();
+    }
+}
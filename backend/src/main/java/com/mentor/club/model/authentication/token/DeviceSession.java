@@ -0,0 +1,16 @@
+package com.mentor.club.model.authentication.token;
+
+import com.mentor.club.model.authentication.token.concretes.AccessToken;
+import com.mentor.club.model.authentication.token.concretes.RefreshToken;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Access and refresh token that replaced all previous tokens of a user on one device
+ */
+@Getter
+@AllArgsConstructor
+public class DeviceSession {
+    private final AccessToken accessToken;
+    private final RefreshToken refreshToken;
+}
@@ -0,0 +1,45 @@
+package com.mentor.club.model.authentication.token;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Fixed-size SHA-256 digest of a token string
+ */
+public final class TokenDigest {
+    public static final int LENGTH_IN_BYTES = 32;
+
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+
+    private static final int LOG_PREFIX_LENGTH_IN_BYTES = 4;
+
+    private TokenDigest() {
+    }
+
+    /**
+     * First bytes of the digest in hex, tells tokens apart in log lines without revealing them
+     */
+    public static String prefixOf(String token) {
+        if (token == null) {
+            return null;
+        }
+
+        byte[] digest = of(token);
+        StringBuilder prefix = new StringBuilder();
+
+        for (int index = 0; index < LOG_PREFIX_LENGTH_IN_BYTES; index++) {
+            prefix.append(String.format("%02x", digest[index]));
+        }
+
+        return prefix.toString();
+    }
+
+    public static byte[] of(String token) {
+        try {
+            return MessageDigest.getInstance(DIGEST_ALGORITHM).digest(token.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+}
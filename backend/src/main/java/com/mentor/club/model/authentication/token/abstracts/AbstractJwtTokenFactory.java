@@ -1,8 +1,12 @@
 package com.mentor.club.model.authentication.token.abstracts;
 
 import com.mentor.club.model.authentication.token.enums.JwtTokenType;
+import com.mentor.club.model.authentication.token.factories.ITokenGenerator;
+
+import java.util.UUID;
 
 public abstract class AbstractJwtTokenFactory {
     public abstract JwtToken getJwtToken(JwtTokenType jwtTokenType);
-    public abstract JwtTokenWithDeviceId getJwtTokenWithDeviceId(JwtTokenType jwtTokenType);
+    public abstract JwtTokenWithDeviceId getJwtTokenWithDeviceId(JwtTokenType jwtTokenType, UUID deviceId);
+    public abstract ITokenGenerator getTokenGenerator(JwtTokenType jwtTokenType);
 }
\ No newline at end of file
@@ -1,6 +1,8 @@
 package com.mentor.club.model.authentication.token.abstracts;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.mentor.club.model.authentication.token.TokenDigest;
 import com.mentor.club.model.authentication.token.enums.JwtTokenType;
 import com.mentor.club.model.user.User;
 import lombok.AccessLevel;
@@ -26,16 +28,36 @@ public abstract class JwtToken {
     @GeneratedValue(strategy = GenerationType.AUTO)
     private UUID id;
 
-    @Column(name = "token", length = 1024)
+    /**
+     * Plain token value, only known right after the token was generated. Only its digest is persisted.
+     */
+    @Transient
     @JsonProperty("token")
+    @Setter(AccessLevel.NONE)
     private String token;
 
+    @JsonIgnore
+    @Column(name = "tokenDigest", length = TokenDigest.LENGTH_IN_BYTES, nullable = false)
+    @Setter(AccessLevel.NONE)
+    private byte[] tokenDigest;
+
+    /**
+     * Loaded on access, repository methods named findWithUser* fetch it together with the token
+     */
     @JsonProperty("user")
-    @ManyToOne(targetEntity = User.class, fetch = FetchType.EAGER)
+    @ManyToOne(targetEntity = User.class, fetch = FetchType.LAZY)
     @OnDelete(action = OnDeleteAction.CASCADE)
     @JoinColumn(nullable = false, name = "userId", referencedColumnName = "id")
     private User user;
 
+    /**
+     * Id of the user read from the token row without loading the user, null until the token was saved and read back
+     */
+    @JsonIgnore
+    @Column(name = "userId", columnDefinition = "uuid", insertable = false, updatable = false)
+    @Setter(AccessLevel.NONE)
+    private UUID userId;
+
     @Column(name = "expirationDate")
     @JsonProperty("expirationDate")
     private Date expirationDate;
@@ -44,12 +66,24 @@ public abstract class JwtToken {
     @JsonProperty("tokenType")
     private JwtTokenType jwtTokenType;
 
+    public void setToken(String token) {
+        this.token = token;
+        this.tokenDigest = token == null ? null : TokenDigest.of(token);
+    }
+
     public Boolean isExpired() {
         Calendar cal = Calendar.getInstance();
 
         return getExpirationDate().before(cal.getTime());
     }
 
+    /**
+     * Id signed into the token as jti claim, only tokens that can be revoked before they expire have one
+     */
+    public UUID getTokenId() {
+        return null;
+    }
+
     public JwtToken(JwtTokenType jwtTokenType) {
         this.jwtTokenType = jwtTokenType;
     }
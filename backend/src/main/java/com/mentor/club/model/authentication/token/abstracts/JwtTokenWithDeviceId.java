@@ -2,6 +2,7 @@ package com.mentor.club.model.authentication.token.abstracts;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.mentor.club.model.authentication.token.enums.JwtTokenType;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
@@ -17,9 +18,12 @@ import java.util.UUID;
 public abstract class JwtTokenWithDeviceId extends JwtToken {
     @Column(name = "deviceId")
     @JsonProperty("deviceId")
+    @Setter(AccessLevel.NONE)
     private UUID deviceId;
 
-    public JwtTokenWithDeviceId(JwtTokenType jwtTokenType) {
+    public JwtTokenWithDeviceId(JwtTokenType jwtTokenType, UUID deviceId) {
         super(jwtTokenType);
+
+        this.deviceId = deviceId;
     }
 }
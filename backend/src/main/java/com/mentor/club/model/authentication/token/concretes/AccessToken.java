@@ -1,15 +1,26 @@
 package com.mentor.club.model.authentication.token.concretes;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import com.mentor.club.model.authentication.token.enums.JwtTokenType;
 import com.mentor.club.model.authentication.token.abstracts.JwtTokenWithDeviceId;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
 
+import javax.persistence.Column;
 import javax.persistence.Entity;
+import java.util.UUID;
 
 @Entity
 @NoArgsConstructor
+@Getter
 public class AccessToken extends JwtTokenWithDeviceId {
-    public AccessToken(JwtTokenType jwtTokenType) {
-        super(jwtTokenType);
+    @Column(name = "tokenId", columnDefinition = "uuid")
+    @JsonProperty("tokenId")
+    private UUID tokenId;
+
+    public AccessToken(JwtTokenType jwtTokenType, UUID deviceId) {
+        super(jwtTokenType, deviceId);
+
+        this.tokenId = UUID.randomUUID();
     }
 }
@@ -5,11 +5,12 @@ import com.mentor.club.model.authentication.token.abstracts.JwtTokenWithDeviceId
 import lombok.NoArgsConstructor;
 
 import javax.persistence.Entity;
+import java.util.UUID;
 
 @Entity
 @NoArgsConstructor
 public class RefreshToken extends JwtTokenWithDeviceId {
-    public RefreshToken(JwtTokenType jwtTokenType) {
-        super(jwtTokenType);
+    public RefreshToken(JwtTokenType jwtTokenType, UUID deviceId) {
+        super(jwtTokenType, deviceId);
     }
 }
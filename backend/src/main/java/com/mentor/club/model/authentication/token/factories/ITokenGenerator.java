@@ -0,0 +1,13 @@
+package com.mentor.club.model.authentication.token.factories;
+
+import com.mentor.club.model.authentication.token.abstracts.JwtToken;
+
+/**
+ * Produces the string value of a token, chosen per token type by the token factories
+ */
+public interface ITokenGenerator {
+    /**
+     * @param jwtToken token the value is generated for, its user is already set
+     */
+    String generateToken(JwtToken jwtToken, Long tokenLifetime);
+}
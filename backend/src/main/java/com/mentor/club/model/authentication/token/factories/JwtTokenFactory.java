@@ -8,8 +8,16 @@ import com.mentor.club.model.authentication.token.concretes.PasswordResetToken;
 import com.mentor.club.model.authentication.token.enums.JwtTokenType;
 import org.springframework.stereotype.Component;
 
+import java.util.UUID;
+
 @Component
 public final class JwtTokenFactory extends AbstractJwtTokenFactory {
+    private ShortCodeTokenGenerator shortCodeTokenGenerator;
+
+    public JwtTokenFactory(ShortCodeTokenGenerator shortCodeTokenGenerator) {
+        this.shortCodeTokenGenerator = shortCodeTokenGenerator;
+    }
+
     @Override
     public JwtToken getJwtToken(JwtTokenType jwtTokenType) {
         JwtToken jwtToken;
@@ -29,7 +37,18 @@ public final class JwtTokenFactory extends AbstractJwtTokenFactory {
     }
 
     @Override
-    public JwtTokenWithDeviceId getJwtTokenWithDeviceId(JwtTokenType jwtTokenType) {
+    public JwtTokenWithDeviceId getJwtTokenWithDeviceId(JwtTokenType jwtTokenType, UUID deviceId) {
         return null;
     }
+
+    @Override
+    public ITokenGenerator getTokenGenerator(JwtTokenType jwtTokenType) {
+        switch (jwtTokenType) {
+            case PASSWORD_RESET_TOKEN:
+            case EMAIL_CONFIRM_TOKEN:
+                return shortCodeTokenGenerator;
+            default:
+                throw new IllegalStateException("Unexpected value for jwtTokenType: " + jwtTokenType);
+        }
+    }
 }
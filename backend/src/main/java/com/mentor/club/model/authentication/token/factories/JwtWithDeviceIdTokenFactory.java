@@ -8,23 +8,33 @@ import com.mentor.club.model.authentication.token.concretes.RefreshToken;
 import com.mentor.club.model.authentication.token.enums.JwtTokenType;
 import org.springframework.stereotype.Component;
 
+import java.util.UUID;
+
 @Component
 public final class JwtWithDeviceIdTokenFactory extends AbstractJwtTokenFactory {
+    private SignedJwtTokenGenerator signedJwtTokenGenerator;
+    private OpaqueTokenGenerator opaqueTokenGenerator;
+
+    public JwtWithDeviceIdTokenFactory(SignedJwtTokenGenerator signedJwtTokenGenerator, OpaqueTokenGenerator opaqueTokenGenerator) {
+        this.signedJwtTokenGenerator = signedJwtTokenGenerator;
+        this.opaqueTokenGenerator = opaqueTokenGenerator;
+    }
+
     @Override
     public JwtToken getJwtToken(JwtTokenType jwtTokenType) {
         return null;
     }
 
     @Override
-    public JwtTokenWithDeviceId getJwtTokenWithDeviceId(JwtTokenType jwtTokenType) {
+    public JwtTokenWithDeviceId getJwtTokenWithDeviceId(JwtTokenType jwtTokenType, UUID deviceId) {
         JwtTokenWithDeviceId jwtToken;
 
         switch (jwtTokenType) {
             case REFRESH_TOKEN:
-                jwtToken = new RefreshToken(jwtTokenType);
+                jwtToken = new RefreshToken(jwtTokenType, deviceId);
                 break;
             case ACCESS_TOKEN:
-                jwtToken = new AccessToken(jwtTokenType);
+                jwtToken = new AccessToken(jwtTokenType, deviceId);
                 break;
             default:
                 throw new IllegalStateException("Unexpected value for jwtTokenType: " + jwtTokenType);
@@ -32,4 +42,19 @@ public final class JwtWithDeviceIdTokenFactory extends AbstractJwtTokenFactory {
 
         return jwtToken;
     }
+
+    /**
+     * Access tokens are verified by signature, refresh tokens only by a db lookup so they do not need one
+     */
+    @Override
+    public ITokenGenerator getTokenGenerator(JwtTokenType jwtTokenType) {
+        switch (jwtTokenType) {
+            case REFRESH_TOKEN:
+                return opaqueTokenGenerator;
+            case ACCESS_TOKEN:
+                return signedJwtTokenGenerator;
+            default:
+                throw new IllegalStateException("Unexpected value for jwtTokenType: " + jwtTokenType);
+        }
+    }
 }
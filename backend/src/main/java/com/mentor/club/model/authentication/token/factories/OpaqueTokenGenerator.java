@@ -0,0 +1,29 @@
+package com.mentor.club.model.authentication.token.factories;
+
+import com.mentor.club.model.authentication.token.abstracts.JwtToken;
+import org.springframework.stereotype.Component;
+
+import java.util.Base64;
+
+/**
+ * 256 bit random string, for tokens that are only ever looked up in the db
+ */
+@Component
+public class OpaqueTokenGenerator implements ITokenGenerator {
+    private static final int TOKEN_LENGTH_IN_BYTES = 32;
+
+    private SecureRandomPool secureRandomPool;
+
+    public OpaqueTokenGenerator(SecureRandomPool secureRandomPool) {
+        this.secureRandomPool = secureRandomPool;
+    }
+
+    @Override
+    public String generateToken(JwtToken jwtToken, Long tokenLifetime) {
+        byte[] randomBytes = new byte[TOKEN_LENGTH_IN_BYTES];
+
+        secureRandomPool.get().nextBytes(randomBytes);
+
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(randomBytes);
+    }
+}
@@ -0,0 +1,26 @@
+package com.mentor.club.model.authentication.token.factories;
+
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A few independently seeded SecureRandom instances, so that concurrent token generation does not contend on one lock
+ */
+@Component
+public class SecureRandomPool {
+    private static final int POOL_SIZE = 4;
+
+    private final SecureRandom[] secureRandoms = new SecureRandom[POOL_SIZE];
+
+    public SecureRandomPool() {
+        for (int index = 0; index < POOL_SIZE; index++) {
+            secureRandoms[index] = new SecureRandom();
+        }
+    }
+
+    public SecureRandom get() {
+        return secureRandoms[ThreadLocalRandom.current().nextInt(POOL_SIZE)];
+    }
+}
@@ -0,0 +1,33 @@
+package com.mentor.club.model.authentication.token.factories;
+
+import com.mentor.club.model.authentication.token.abstracts.JwtToken;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+
+/**
+ * Short upper case alphanumeric code that users type in from an email
+ */
+@Component
+public class ShortCodeTokenGenerator implements ITokenGenerator {
+    private static final char[] ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789".toCharArray();
+    private static final int CODE_LENGTH = 6;
+
+    private SecureRandomPool secureRandomPool;
+
+    public ShortCodeTokenGenerator(SecureRandomPool secureRandomPool) {
+        this.secureRandomPool = secureRandomPool;
+    }
+
+    @Override
+    public String generateToken(JwtToken jwtToken, Long tokenLifetime) {
+        SecureRandom secureRandom = secureRandomPool.get();
+        char[] code = new char[CODE_LENGTH];
+
+        for (int index = 0; index < CODE_LENGTH; index++) {
+            code[index] = ALPHABET[secureRandom.nextInt(ALPHABET.length)];
+        }
+
+        return new String(code);
+    }
+}
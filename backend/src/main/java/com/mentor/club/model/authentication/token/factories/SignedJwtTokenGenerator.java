@@ -0,0 +1,34 @@
+package com.mentor.club.model.authentication.token.factories;
+
+import com.mentor.club.model.authentication.token.abstracts.JwtToken;
+import com.mentor.club.model.user.User;
+import com.mentor.club.service.RsaService;
+import com.mentor.club.service.SessionEpochService;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Signed JWT, for tokens that are verified by their signature
+ */
+@Component
+public class SignedJwtTokenGenerator implements ITokenGenerator {
+    private static final List<String> USER_GROUPS = Collections.singletonList("user"); // change in the future
+
+    private RsaService rsaService;
+    private SessionEpochService sessionEpochService;
+
+    public SignedJwtTokenGenerator(RsaService rsaService, SessionEpochService sessionEpochService) {
+        this.rsaService = rsaService;
+        this.sessionEpochService = sessionEpochService;
+    }
+
+    @Override
+    public String generateToken(JwtToken jwtToken, Long tokenLifetime) {
+        User user = jwtToken.getUser();
+        Long sessionEpoch = sessionEpochService.getCurrentEpoch(user.getUsername());
+
+        return rsaService.generateToken(user.getUsername(), USER_GROUPS, tokenLifetime, sessionEpoch, jwtToken.getTokenId());
+    }
+}
@@ -16,7 +16,8 @@ public enum HttpCallError {
     EXTERNAL_ERROR("Error while trying to handle some external error"),
     READ_INPUT_STREAM("Error while trying to read data from an input stream"),
     DESERIALIZE("Error while trying to deserialize data"),
-    SERIALIZE("Error while trying to serialize data");
+    SERIALIZE("Error while trying to serialize data"),
+    TOO_MANY_REQUESTS("Too many requests");
 
     @Getter
     private final String description;
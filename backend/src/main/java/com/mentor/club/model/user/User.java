@@ -3,6 +3,7 @@ package com.mentor.club.model.user;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.AccessLevel;
 import lombok.Getter;
+import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 import javax.persistence.*;
@@ -12,6 +13,7 @@ import java.util.UUID;
 @Table(name = "users")
 @Getter
 @Setter
+@NoArgsConstructor
 public class User {
     @Id
     @Getter
@@ -36,11 +38,24 @@ public class User {
     @JsonProperty("hashedPassword")
     private String hashedPassword;
 
-    @Column(name = "thumbnailBase64")
-    @JsonProperty("thumbnailBase64")
-    private String thumbnailBase64;
+    /**
+     * Version of the user's thumbnail, null if the user has none. The image itself is a {@link UserThumbnail}.
+     */
+    @Column(name = "thumbnailVersion", length = 32)
+    @JsonProperty("thumbnailVersion")
+    private String thumbnailVersion;
 
     @Column(name = "status")
     @JsonProperty("status")
     private UserStatus userStatus = UserStatus.CREATED_UNCONFIRMED_EMAIL;
+
+    public User(User user) {
+        this.id = user.getId();
+        this.name = user.getName();
+        this.username = user.getUsername();
+        this.email = user.getEmail();
+        this.hashedPassword = user.getHashedPassword();
+        this.thumbnailVersion = user.getThumbnailVersion();
+        this.userStatus = user.getUserStatus();
+    }
 }
@@ -0,0 +1,32 @@
+package com.mentor.club.model.user;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import java.util.UUID;
+
+/**
+ * Thumbnail image of a user, stored apart from the users row. The version is the md5 of the image and serves as ETag.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+public class UserThumbnail {
+    @Id
+    @Column(name = "userId", columnDefinition = "uuid")
+    private UUID userId;
+
+    @Column(name = "contentType", nullable = false)
+    private String contentType;
+
+    @Column(name = "image", columnDefinition = "bytea", nullable = false)
+    private byte[] image;
+
+    @Column(name = "version", length = 32, nullable = false)
+    private String version;
+}
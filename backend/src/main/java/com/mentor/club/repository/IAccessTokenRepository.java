@@ -1,8 +1,33 @@
 package com.mentor.club.repository;
 
+import com.mentor.club.model.authentication.revocation.RevokedAccessToken;
 import com.mentor.club.model.authentication.token.concretes.AccessToken;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
 @Repository
 public interface IAccessTokenRepository extends IJwtTokenWithDeviceIdRepository<AccessToken> {
-}
\ No newline at end of file
+    /**
+     * Whether the user has an unexpired access token with the digest. Reads at most one row through the token digest
+     * index and loads no entity, whatever the number of sessions of the user.
+     */
+    boolean existsByUserIdAndTokenDigestAndExpirationDateAfter(@Param("userId") UUID userId,
+                                                               @Param("tokenDigest") byte[] tokenDigest,
+                                                               @Param("expirationDate") Date expirationDate);
+
+    /**
+     * Revocations for the unexpired tokens of a user, without loading the tokens themselves
+     */
+    @Query("select new com.mentor.club.model.authentication.revocation.RevokedAccessToken(token.tokenId, token.expirationDate) " +
+            "from AccessToken token where token.user.id = :userId and token.tokenId is not null and token.expirationDate > current_timestamp")
+    List<RevokedAccessToken> findRevocationsByUserId(@Param("userId") UUID userId);
+
+    @Query("select new com.mentor.club.model.authentication.revocation.RevokedAccessToken(token.tokenId, token.expirationDate) " +
+            "from AccessToken token where token.user.id = :userId and token.deviceId = :deviceId and token.tokenId is not null and token.expirationDate > current_timestamp")
+    List<RevokedAccessToken> findRevocationsByUserIdAndDeviceId(@Param("userId") UUID userId, @Param("deviceId") UUID deviceId);
+}
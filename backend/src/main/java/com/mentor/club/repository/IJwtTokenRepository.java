@@ -1,8 +1,13 @@
 package com.mentor.club.repository;
 
+import com.mentor.club.model.authentication.token.TokenDigest;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.NoRepositoryBean;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -12,5 +17,35 @@ import java.util.UUID;
 public interface IJwtTokenRepository<T> extends JpaRepository<T, Long> {
     List<T> findByUserId(@Param("userId") UUID userId);
 
-    Optional<T> findByToken(@Param("token") String token);
-}
\ No newline at end of file
+    Optional<T> findByTokenDigest(@Param("tokenDigest") byte[] tokenDigest);
+
+    default Optional<T> findByToken(String token) {
+        return findByTokenDigest(TokenDigest.of(token));
+    }
+
+    /**
+     * Fetches the token together with its user, for callers that need more of the user than its id
+     */
+    @EntityGraph(attributePaths = "user")
+    Optional<T> findWithUserByTokenDigest(@Param("tokenDigest") byte[] tokenDigest);
+
+    default Optional<T> findWithUserByToken(String token) {
+        return findWithUserByTokenDigest(TokenDigest.of(token));
+    }
+
+    /**
+     * @return number of deleted tokens
+     */
+    @Modifying
+    @Transactional
+    @Query("delete from #{#entityName} token where token.tokenDigest = :tokenDigest")
+    int deleteByTokenDigest(@Param("tokenDigest") byte[] tokenDigest);
+
+    /**
+     * @return number of deleted tokens
+     */
+    @Modifying
+    @Transactional
+    @Query("delete from #{#entityName} token where token.user.id = :userId")
+    int deleteByUserId(@Param("userId") UUID userId);
+}
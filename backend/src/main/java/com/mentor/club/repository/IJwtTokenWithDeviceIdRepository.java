@@ -1,17 +1,40 @@
 package com.mentor.club.repository;
 
+import com.mentor.club.model.authentication.token.TokenDigest;
 import com.mentor.club.model.authentication.token.abstracts.JwtTokenWithDeviceId;
-import com.mentor.club.model.user.User;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.NoRepositoryBean;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 @NoRepositoryBean
 public interface IJwtTokenWithDeviceIdRepository<T> extends IJwtTokenRepository<T> {
-    Optional<JwtTokenWithDeviceId> findByTokenAndDeviceId(@Param("token") String token, @Param("deviceId") UUID deviceId);
+    Optional<JwtTokenWithDeviceId> findByTokenDigestAndDeviceId(@Param("tokenDigest") byte[] tokenDigest, @Param("deviceId") UUID deviceId);
 
-    List<JwtTokenWithDeviceId> findByUserAndDeviceId(@Param("user") User user, @Param("deviceId") UUID deviceId);
-}
\ No newline at end of file
+    default Optional<JwtTokenWithDeviceId> findByTokenAndDeviceId(String token, UUID deviceId) {
+        return findByTokenDigestAndDeviceId(TokenDigest.of(token), deviceId);
+    }
+
+    /**
+     * Fetches the token together with its user, for callers that need more of the user than its id
+     */
+    @EntityGraph(attributePaths = "user")
+    Optional<JwtTokenWithDeviceId> findWithUserByTokenDigestAndDeviceId(@Param("tokenDigest") byte[] tokenDigest, @Param("deviceId") UUID deviceId);
+
+    default Optional<JwtTokenWithDeviceId> findWithUserByTokenAndDeviceId(String token, UUID deviceId) {
+        return findWithUserByTokenDigestAndDeviceId(TokenDigest.of(token), deviceId);
+    }
+
+    /**
+     * @return number of deleted tokens
+     */
+    @Modifying
+    @Transactional
+    @Query("delete from #{#entityName} token where token.user.id = :userId and token.deviceId = :deviceId")
+    int deleteByUserIdAndDeviceId(@Param("userId") UUID userId, @Param("deviceId") UUID deviceId);
+}
@@ -0,0 +1,16 @@
+package com.mentor.club.repository;
+
+import com.mentor.club.model.authentication.revocation.RevokedAccessToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface IRevokedAccessTokenRepository extends JpaRepository<RevokedAccessToken, UUID> {
+    List<RevokedAccessToken> findByExpirationDateAfter(Date date);
+
+    List<RevokedAccessToken> findByRevokedAtAfter(Date date);
+}
@@ -2,8 +2,11 @@ package com.mentor.club.repository;
 
 import com.mentor.club.model.user.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 import java.util.UUID;
@@ -15,4 +18,17 @@ public interface IUserRepository extends JpaRepository<User, String> {
     Optional<User> findUserByUsername(@Param("username") String email);
 
     Optional<User> findById(UUID userId);
+
+    /**
+     * Replaces the password hash only if it is still the given one, so that a password changed in the meantime is
+     * never overwritten
+     *
+     * @return number of updated users
+     */
+    @Modifying
+    @Transactional
+    @Query("update User user set user.hashedPassword = :newHashedPassword where user.id = :id and user.hashedPassword = :hashedPassword")
+    int updateHashedPassword(@Param("id") UUID id,
+                             @Param("hashedPassword") String hashedPassword,
+                             @Param("newHashedPassword") String newHashedPassword);
 }
\ No newline at end of file
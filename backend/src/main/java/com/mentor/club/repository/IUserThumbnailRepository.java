@@ -0,0 +1,11 @@
+package com.mentor.club.repository;
+
+import com.mentor.club.model.user.UserThumbnail;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+@Repository
+public interface IUserThumbnailRepository extends JpaRepository<UserThumbnail, UUID> {
+}
@@ -0,0 +1,139 @@
+package com.mentor.club.service;
+
+import com.mentor.club.model.authentication.revocation.RevokedAccessToken;
+import com.mentor.club.model.authentication.token.concretes.AccessToken;
+import com.mentor.club.model.authentication.token.concretes.RefreshToken;
+import com.mentor.club.model.authentication.token.enums.JwtTokenType;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static com.mentor.club.service.JwtService.DELETED_TOKENS_METRIC;
+
+/**
+ * Writes the tokens of a login, email confirmation or refresh. The previous access and refresh tokens of the device are
+ * deleted and the new pair is inserted by one statement.
+ * The token tables are partitioned by expiration date, so postgres can not enforce one row per (user, device) with a
+ * unique index and INSERT ... ON CONFLICT does not apply. The data-modifying CTE has the same effect in one round-trip.
+ */
+@Service
+public class DeviceSessionService {
+    private static final String REPLACE_DEVICE_TOKENS_QUERY =
+            "WITH deleted_access_tokens AS (" +
+            "    DELETE FROM access_token WHERE user_id = ? AND device_id = ? RETURNING token_id, expiration_date" +
+            "), deleted_refresh_tokens AS (" +
+            "    DELETE FROM refresh_token WHERE user_id = ? AND device_id = ? RETURNING id" +
+            "), inserted_access_token AS (" +
+            "    INSERT INTO access_token (id, token_digest, user_id, expiration_date, token_type, device_id, token_id)" +
+            "    VALUES (?, ?, ?, ?, ?, ?, ?)" +
+            "), inserted_refresh_token AS (" +
+            "    INSERT INTO refresh_token (id, token_digest, user_id, expiration_date, token_type, device_id)" +
+            "    VALUES (?, ?, ?, ?, ?, ?)" +
+            ") " +
+            "SELECT 'ACCESS_TOKEN' AS token_type, token_id, expiration_date FROM deleted_access_tokens " +
+            "UNION ALL " +
+            "SELECT 'REFRESH_TOKEN', NULL, NULL FROM deleted_refresh_tokens";
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private RevocationFilterService revocationFilterService;
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    public DeviceSessionService(JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager,
+                                RevocationFilterService revocationFilterService,
+                                MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.revocationFilterService = revocationFilterService;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Replaces all tokens of the user on the device of the given tokens. Unexpired access tokens that were replaced
+     * are revoked in the same transaction.
+     */
+    void replaceDeviceTokens(UUID userId, AccessToken accessToken, RefreshToken refreshToken) {
+        List<DeletedToken> deletedTokens = transactionTemplate.execute(status -> {
+            List<DeletedToken> tokens = jdbcTemplate.query(
+                    REPLACE_DEVICE_TOKENS_QUERY,
+                    this::toDeletedToken,
+                    userId,
+                    accessToken.getDeviceId(),
+                    userId,
+                    refreshToken.getDeviceId(),
+                    UUID.randomUUID(),
+                    accessToken.getTokenDigest(),
+                    userId,
+                    new Timestamp(accessToken.getExpirationDate().getTime()),
+                    accessToken.getJwtTokenType().ordinal(),
+                    accessToken.getDeviceId(),
+                    accessToken.getTokenId(),
+                    UUID.randomUUID(),
+                    refreshToken.getTokenDigest(),
+                    userId,
+                    new Timestamp(refreshToken.getExpirationDate().getTime()),
+                    refreshToken.getJwtTokenType().ordinal(),
+                    refreshToken.getDeviceId());
+
+            revokeAccessTokens(tokens);
+
+            return tokens;
+        });
+
+        recordDeletedTokens(deletedTokens);
+    }
+
+    private void revokeAccessTokens(List<DeletedToken> deletedTokens) {
+        if (!revocationFilterService.isEnabled()) {
+            return;
+        }
+
+        List<RevokedAccessToken> revokedAccessTokens = new ArrayList<>();
+
+        for (DeletedToken deletedToken : deletedTokens) {
+            if (deletedToken.tokenId != null) {
+                revokedAccessTokens.add(new RevokedAccessToken(deletedToken.tokenId, deletedToken.expirationDate));
+            }
+        }
+
+        revocationFilterService.revoke(revokedAccessTokens);
+    }
+
+    private void recordDeletedTokens(List<DeletedToken> deletedTokens) {
+        long deletedAccessTokenCount = deletedTokens.stream().filter(deletedToken -> deletedToken.jwtTokenType == JwtTokenType.ACCESS_TOKEN).count();
+
+        meterRegistry.counter(DELETED_TOKENS_METRIC, "type", JwtTokenType.ACCESS_TOKEN.name(), "scope", "device").increment(deletedAccessTokenCount);
+        meterRegistry.counter(DELETED_TOKENS_METRIC, "type", JwtTokenType.REFRESH_TOKEN.name(), "scope", "device").increment(deletedTokens.size() - deletedAccessTokenCount);
+    }
+
+    private DeletedToken toDeletedToken(ResultSet resultSet, int rowNumber) throws SQLException {
+        return new DeletedToken(
+                JwtTokenType.valueOf(resultSet.getString("token_type")),
+                (UUID) resultSet.getObject("token_id"),
+                resultSet.getTimestamp("expiration_date"));
+    }
+
+    private static class DeletedToken {
+        private final JwtTokenType jwtTokenType;
+        private final UUID tokenId;
+        private final Timestamp expirationDate;
+
+        DeletedToken(JwtTokenType jwtTokenType, UUID tokenId, Timestamp expirationDate) {
+            this.jwtTokenType = jwtTokenType;
+            this.tokenId = tokenId;
+            this.expirationDate = expirationDate;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.mentor.club.service;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Deletes expired rows from the token tables in small batches, so that a large backlog never holds locks or
+ * fills the wal in one go. Runs on its own connection pool to leave the request pool untouched.
+ */
+@Service
+public class ExpiredTokenReaperService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ExpiredTokenReaperService.class);
+
+    private static final String POOL_NAME = "token-reaper";
+    private static final Pattern TABLE_NAME_PATTERN = Pattern.compile("[a-z_]+");
+
+    private static final String REAPED_ROWS_METRIC = "jwt.tokens.reaped";
+    private static final String TABLE_SIZE_METRIC = "jwt.token.table.size";
+
+    private DataSourceProperties dataSourceProperties;
+    private MeterRegistry meterRegistry;
+
+    @Value("${jwt.reaper.enabled:true}")
+    private boolean enabled;
+
+    @Value("${jwt.reaper.tables:access_token_default,refresh_token_default,email_confirm_token,password_reset_token,revoked_access_token}")
+    private String[] tables;
+
+    @Value("${jwt.reaper.batch-size:500}")
+    private int batchSize;
+
+    @Value("${jwt.reaper.pause-between-batches-in-milliseconds:100}")
+    private long pauseBetweenBatchesInMilliseconds;
+
+    /**
+     * Expired tokens are kept a bit longer so that users still get "expired" instead of "not found"
+     */
+    @Value("${jwt.reaper.retention-after-expiration-in-seconds:3600}")
+    private long retentionAfterExpirationInSeconds;
+
+    @Value("${jwt.reaper.maximum-pool-size:1}")
+    private int maximumPoolSize;
+
+    private HikariDataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private final Map<String, AtomicLong> tableSizesInBytes = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ExpiredTokenReaperService(DataSourceProperties dataSourceProperties, MeterRegistry meterRegistry) {
+        this.dataSourceProperties = dataSourceProperties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void init() {
+        if (!enabled) {
+            return;
+        }
+
+        for (String table : tables) {
+            if (!TABLE_NAME_PATTERN.matcher(table.trim()).matches()) {
+                throw new IllegalStateException("Invalid table name for the expired token reaper: " + table);
+            }
+        }
+
+        dataSource = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName(POOL_NAME);
+        dataSource.setMaximumPoolSize(maximumPoolSize);
+        dataSource.setMinimumIdle(0);
+
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (dataSource != null) {
+            dataSource.close();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.reaper.interval-in-milliseconds:60000}", initialDelayString = "${jwt.reaper.interval-in-milliseconds:60000}")
+    void reap() {
+        if (!enabled) {
+            return;
+        }
+
+        for (String table : tables) {
+            String tableName = table.trim();
+
+            try {
+                long reapedRowCount = reapTable(tableName);
+
+                meterRegistry.counter(REAPED_ROWS_METRIC, "table", tableName).increment(reapedRowCount);
+                updateTableSize(tableName);
+
+                if (reapedRowCount > 0) {
+                    LOGGER.info("Reaped " + reapedRowCount + " expired rows from " + tableName + ".");
+                }
+            } catch (Exception exception) {
+                LOGGER.error("Failed to reap expired rows from " + tableName + ". Error: " + exception.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Deletes batches of expired rows until a batch comes back short, every batch commits on its own
+     */
+    long reapTable(String tableName) throws InterruptedException {
+        String deleteBatchSql = "DELETE FROM " + tableName + " WHERE ctid IN " +
+                "(SELECT ctid FROM " + tableName + " WHERE expiration_date < ? LIMIT ?)";
+        Timestamp expiredBefore = Timestamp.from(Instant.now().minusSeconds(retentionAfterExpirationInSeconds));
+        long reapedRowCount = 0;
+
+        while (true) {
+            int deletedRowCount = jdbcTemplate.update(deleteBatchSql, expiredBefore, batchSize);
+
+            reapedRowCount += deletedRowCount;
+
+            if (deletedRowCount < batchSize) {
+                return reapedRowCount;
+            }
+
+            Thread.sleep(pauseBetweenBatchesInMilliseconds);
+        }
+    }
+
+    private void updateTableSize(String tableName) {
+        Long tableSizeInBytes = jdbcTemplate.queryForObject("SELECT pg_total_relation_size(?::regclass)", Long.class, tableName);
+
+        tableSizesInBytes.computeIfAbsent(tableName, key -> {
+            AtomicLong tableSize = new AtomicLong();
+
+            Gauge.builder(TABLE_SIZE_METRIC, tableSize, AtomicLong::get)
+                    .tag("table", key)
+                    .baseUnit("bytes")
+                    .register(meterRegistry);
+
+            return tableSize;
+        }).set(tableSizeInBytes == null ? 0 : tableSizeInBytes);
+    }
+}
@@ -8,6 +8,9 @@ import com.mentor.club.model.ExtendableResult;
 import com.mentor.club.model.InternalResponse;
 import com.mentor.club.model.PublicKeyResponse;
 import com.mentor.club.model.authentication.AuthenticationResult;
+import com.mentor.club.model.authentication.key.SigningKeyring;
+import com.mentor.club.model.authentication.token.DeviceSession;
+import com.mentor.club.model.authentication.token.TokenDigest;
 import com.mentor.club.model.authentication.token.abstracts.AbstractJwtTokenFactory;
 import com.mentor.club.model.authentication.token.abstracts.JwtToken;
 import com.mentor.club.model.authentication.token.abstracts.JwtTokenWithDeviceId;
@@ -19,11 +22,12 @@ import com.mentor.club.model.authentication.token.factories.JwtTokenFactory;
 import com.mentor.club.model.authentication.token.factories.JwtWithDeviceIdTokenFactory;
 import com.mentor.club.model.user.User;
 import com.mentor.club.repository.*;
-import org.apache.commons.lang3.RandomStringUtils;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -33,10 +37,10 @@ import javax.servlet.http.Cookie;
 import javax.servlet.http.HttpServletResponse;
 import java.time.Instant;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.TimeUnit;
 
-import static com.mentor.club.model.error.HttpCallError.FAILED_TO_FIND_TOKEN;
 import static com.mentor.club.model.error.HttpCallError.FAILED_TO_SAVE_TO_DB;
+import static com.mentor.club.service.RsaService.SESSION_EPOCH_CLAIM;
 import static com.mentor.club.service.RsaService.USERNAME_CLAIM;
 
 @Service
@@ -52,29 +56,67 @@ public class JwtService {
     private static final String INFO_MESSAGE_VALID_JWT = "JWT is valid!";
     private static final String INFO_MESSAGE_NON_WHITELIST_JWT = "JWT is not whitelisted!";
 
-    private IUserRepository userRepository;
+    static final String DELETED_TOKENS_METRIC = "jwt.tokens.deleted";
+
+    private UserCacheService userCacheService;
     private IAccessTokenRepository accessTokenRepository;
     private IRefreshTokenRepository refreshTokenRepository;
     private RsaService rsaService;
+    private VerifiedTokenCacheService verifiedTokenCacheService;
+    private SessionEpochService sessionEpochService;
+    private RevocationFilterService revocationFilterService;
+    private UserThumbnailService userThumbnailService;
+    private DeviceSessionService deviceSessionService;
+    private ReplicaReadService replicaReadService;
     private AbstractJwtTokenFactory jwtTokenFactory;
     private AbstractJwtTokenFactory jwtWithDeviceIdTokenFactory;
+    private MeterRegistry meterRegistry;
 
     @Value("${backend.deployment.url}")
     private String backendDeploymentUrl;
 
+    /**
+     * Accept access tokens of the current session epoch without a db lookup
+     */
+    @Value("${jwt.validation.stateless:false}")
+    private boolean isStatelessValidationEnabled;
+
+    /**
+     * Hot standbys refuse to read unlogged tables, unlogged access tokens are always looked up on the primary
+     */
+    @Value("${jwt.partitions.access-token-unlogged:false}")
+    private boolean isAccessTokenUnlogged;
+
+    @Value("${pem.keys.public-key-max-age-in-seconds:300}")
+    private long publicKeyMaxAgeInSeconds;
+
     @Autowired
-    public JwtService(IUserRepository userRepository,
+    public JwtService(UserCacheService userCacheService,
                       IAccessTokenRepository accessTokenRepository,
                       IRefreshTokenRepository refreshTokenRepository,
                       RsaService rsaService,
+                      VerifiedTokenCacheService verifiedTokenCacheService,
+                      SessionEpochService sessionEpochService,
+                      RevocationFilterService revocationFilterService,
+                      UserThumbnailService userThumbnailService,
+                      DeviceSessionService deviceSessionService,
+                      ReplicaReadService replicaReadService,
                       JwtTokenFactory jwtTokenFactory,
-                      JwtWithDeviceIdTokenFactory jwtWithDeviceIdTokenFactory) {
-        this.userRepository = userRepository;
+                      JwtWithDeviceIdTokenFactory jwtWithDeviceIdTokenFactory,
+                      MeterRegistry meterRegistry) {
+        this.userCacheService = userCacheService;
         this.accessTokenRepository = accessTokenRepository;
         this.refreshTokenRepository = refreshTokenRepository;
         this.rsaService = rsaService;
+        this.verifiedTokenCacheService = verifiedTokenCacheService;
+        this.sessionEpochService = sessionEpochService;
+        this.revocationFilterService = revocationFilterService;
+        this.userThumbnailService = userThumbnailService;
+        this.deviceSessionService = deviceSessionService;
+        this.replicaReadService = replicaReadService;
         this.jwtTokenFactory = jwtTokenFactory;
         this.jwtWithDeviceIdTokenFactory = jwtWithDeviceIdTokenFactory;
+        this.meterRegistry = meterRegistry;
     }
 
     public ResponseEntity<Object> validateAccessToken(String authorization) {
@@ -83,7 +125,7 @@ public class JwtService {
 
         try {
             String token = authorization.substring(authorization.lastIndexOf(" ") + 1);
-            decodedJWT = rsaService.decodeToken(token);
+            decodedJWT = verifiedTokenCacheService.getOrVerify(token, rsaService::decodeToken);
         } catch (JWTDecodeException exception) {
             errorMessage = ERROR_MESSAGE_INVALID_TOKEN;
         } catch (SignatureVerificationException ex) {
@@ -124,10 +166,13 @@ public class JwtService {
         return internalResponse;
     }
 
+    /**
+     * Access token of the authorization header with its user
+     */
     Optional<JwtTokenWithDeviceId> getOptionalAccessToken(String authorization, UUID deviceId) {
         String token = authorization.substring(authorization.lastIndexOf(" ") + 1);
 
-        return accessTokenRepository.findByTokenAndDeviceId(token, deviceId);
+        return accessTokenRepository.findWithUserByTokenAndDeviceId(token, deviceId);
     }
 
     // TODO introduce type
@@ -143,6 +188,7 @@ public class JwtService {
             User user = optionalAccessToken.get().getUser();
 
             deleteAllJwtTokensForUser(user);
+            invalidateAccessTokensOfUser(user);
 
             return new ResponseEntity<>(HttpStatus.OK);
         } catch (Exception exception) {
@@ -164,26 +210,38 @@ public class JwtService {
     private boolean isAccessTokenWhitelisted(DecodedJWT decodedJWT) {
         String username = decodedJWT.getClaims().get(USERNAME_CLAIM).asString();
 
+        if (isStatelessValidationEnabled && sessionEpochService.isCurrentEpoch(username, decodedJWT.getClaim(SESSION_EPOCH_CLAIM).asLong())) {
+            return decodedJWT.getExpiresAt().after(Date.from(Instant.now()));
+        }
+
+        // tokens issued before the jti claim was introduced are always checked against the db
+        if (revocationFilterService.isEnabled() && decodedJWT.getId() != null && !revocationFilterService.mightBeRevoked(UUID.fromString(decodedJWT.getId()))) {
+            return decodedJWT.getExpiresAt().after(Date.from(Instant.now()));
+        }
+
         try {
-            Optional<User> optionalUser = userRepository.findUserByUsername(username);
+            Optional<User> optionalUser = userCacheService.findUserByUsername(username);
 
             if (optionalUser.isPresent()) {
-                List<AccessToken> userAccessTokens = accessTokenRepository.findByUserId(optionalUser.get().getId());
-
-                boolean isTokenPresent = userAccessTokens
-                        .stream()
-                        .map(JwtToken::getToken)
-                        .collect(Collectors.toList())
-                        .contains(decodedJWT.getToken());
-                boolean isTokenExpired = decodedJWT.getExpiresAt().before(Date.from(Instant.now()));
+                Date now = Date.from(Instant.now());
 
-                if (isTokenPresent && isTokenExpired) {
+                if (decodedJWT.getExpiresAt().before(now)) {
                     removeAccessTokenIfExpired(decodedJWT);
 
                     return false;
                 }
 
-                return isTokenPresent;
+                UUID userId = optionalUser.get().getId();
+                byte[] tokenDigest = TokenDigest.of(decodedJWT.getToken());
+
+                if (isAccessTokenUnlogged) {
+                    return accessTokenRepository.existsByUserIdAndTokenDigestAndExpirationDateAfter(userId, tokenDigest, now);
+                }
+
+                return replicaReadService.read(
+                        userId,
+                        () -> accessTokenRepository.existsByUserIdAndTokenDigestAndExpirationDateAfter(userId, tokenDigest, now),
+                        isWhitelisted -> !isWhitelisted);
             } else {
                 LOGGER.error("Failed to check token validity, user with username " + username + " not found!");
 
@@ -196,11 +254,19 @@ public class JwtService {
         }
     }
 
+    /**
+     * Makes sure that no access token of the user is accepted from the verified token cache or by stateless validation
+     */
+    void invalidateAccessTokensOfUser(User user) {
+        verifiedTokenCacheService.invalidateAllForUser(user.getUsername());
+        sessionEpochService.bumpEpoch(user.getUsername());
+    }
+
     private void removeAccessTokenIfExpired(DecodedJWT decodedJWT) {
         try {
-            Optional<AccessToken> optionalToken = accessTokenRepository.findByToken(decodedJWT.getToken());
+            int deletedTokenCount = accessTokenRepository.deleteByTokenDigest(TokenDigest.of(decodedJWT.getToken()));
 
-            optionalToken.ifPresent(jwtToken -> accessTokenRepository.delete(jwtToken));
+            recordDeletedTokens(JwtTokenType.ACCESS_TOKEN, "expired", deletedTokenCount);
         } catch (Exception exception) {
             String username = decodedJWT.getClaims().get(USERNAME_CLAIM).asString();
 
@@ -210,99 +276,106 @@ public class JwtService {
 
     private void deleteJwtToken(IJwtTokenRepository repository, JwtToken jwtToken) {
         try {
-            Optional<JwtToken> token = repository.findByToken(jwtToken.getToken());
+            revocationFilterService.revoke(jwtToken);
 
-            repository.delete(token.get());
-        } catch (Exception exception) {
-            LOGGER.error("Failed to remove " + jwtToken.getJwtTokenType().name() + " token: " + jwtToken.getToken() + "!");
-        }
-    }
+            replicaReadService.recordWrite(jwtToken.getUserId());
 
-    private void deleteJwtTokensForUserForDevice(User user, IJwtTokenWithDeviceIdRepository repository, UUID deviceId) {
-        try {
-            List<JwtToken> tokensOfUser = repository.findByUserAndDeviceId(user, deviceId);
+            int deletedTokenCount = repository.deleteByTokenDigest(jwtToken.getTokenDigest());
 
-            tokensOfUser.forEach(repository::delete);
+            recordDeletedTokens(jwtToken.getJwtTokenType(), "token", deletedTokenCount);
         } catch (Exception exception) {
-            LOGGER.error("Failed to remove all tokens for user with username " + user.getUsername() + " and deviceId " + deviceId + " !");
+            LOGGER.error("Failed to remove " + jwtToken.getJwtTokenType().name() + " token with id " + jwtToken.getId() + "!");
         }
     }
 
-    private void deleteJwtTokensForUser(User user, IJwtTokenRepository repository) {
+    private void deleteJwtTokensForUser(User user, IJwtTokenRepository repository, JwtTokenType jwtTokenType) {
         try {
-            List<JwtToken> tokensOfUser = repository.findByUserId(user.getId());
+            if (jwtTokenType == JwtTokenType.ACCESS_TOKEN && revocationFilterService.isEnabled()) {
+                revocationFilterService.revoke(accessTokenRepository.findRevocationsByUserId(user.getId()));
+            }
+
+            replicaReadService.recordWrite(user.getId());
+
+            int deletedTokenCount = repository.deleteByUserId(user.getId());
 
-            tokensOfUser.forEach(repository::delete);
+            recordDeletedTokens(jwtTokenType, "user", deletedTokenCount);
         } catch (Exception exception) {
             LOGGER.error("Failed to remove all tokens for user with username " + user.getUsername() + "!");
         }
     }
 
-    void deleteAllJwtTokensForUserForDevice(User user, UUID deviceId) {
-        this.deleteJwtTokensForUserForDevice(user, accessTokenRepository, deviceId);
-        this.deleteJwtTokensForUserForDevice(user, refreshTokenRepository, deviceId);
+    private void recordDeletedTokens(JwtTokenType jwtTokenType, String scope, int deletedTokenCount) {
+        meterRegistry.counter(DELETED_TOKENS_METRIC, "type", jwtTokenType.name(), "scope", scope).increment(deletedTokenCount);
     }
 
-    private void deleteAllJwtTokensForUser(User user) {
-        this.deleteJwtTokensForUser(user, accessTokenRepository);
-        this.deleteJwtTokensForUser(user, refreshTokenRepository);
+    void deleteAllJwtTokensForUser(User user) {
+        this.deleteJwtTokensForUser(user, accessTokenRepository, JwtTokenType.ACCESS_TOKEN);
+        this.deleteJwtTokensForUser(user, refreshTokenRepository, JwtTokenType.REFRESH_TOKEN);
     }
 
-    private AccessToken getAccessTokenFromAuthorizationString(String authorization) {
-        String token = authorization.substring(authorization.lastIndexOf(" ") + 1);
+    String generateTokenString(JwtToken jwtToken, Long tokenLifetime, Boolean isWithDeviceId) {
+        AbstractJwtTokenFactory tokenFactory = isWithDeviceId ? jwtWithDeviceIdTokenFactory : jwtTokenFactory;
+
+        return tokenFactory.getTokenGenerator(jwtToken.getJwtTokenType()).generateToken(jwtToken, tokenLifetime);
+    }
 
+    /**
+     * Creates and saves a token that is not bound to a device
+     */
+    <T extends JwtToken> T createJwtToken(User user, Long tokenLifetime, IJwtTokenRepository repository, JwtTokenType jwtTokenType) {
         try {
-            Optional<AccessToken> jwtToken = accessTokenRepository.findByToken(token);
+            JwtToken jwtToken = jwtTokenFactory.getJwtToken(jwtTokenType);
 
-            if (!jwtToken.isPresent()) {
-                throw new InternalException(org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR, FAILED_TO_FIND_TOKEN);
-            }
+            jwtToken.setUser(user);
+            jwtToken.setToken(generateTokenString(jwtToken, tokenLifetime, false));
+            jwtToken.setExpirationDate(Date.from(Instant.now().plusSeconds(tokenLifetime)));
 
-            return jwtToken.get();
+            repository.save(jwtToken);
+
+            return (T) jwtToken;
         } catch (Exception exception) {
-            LOGGER.error("Failed to get access token from authorization string " + authorization + "!");
+            LOGGER.error("Could not create token of type " + jwtTokenType.name() + " for user " + user.getUsername() + "!");
 
-            throw new InternalException(org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR, FAILED_TO_FIND_TOKEN);
+            throw new InternalException(org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR, FAILED_TO_SAVE_TO_DB, exception.getMessage());
         }
     }
 
-    void setDeviceIdOnJwtToken(JwtTokenWithDeviceId jwtTokenWithDeviceId, UUID deviceId, IJwtTokenWithDeviceIdRepository jwtTokenWithDeviceIdRepository) {
+    /**
+     * Creates a new access and refresh token for the device and replaces all previous tokens of the user on it
+     */
+    DeviceSession createDeviceSession(User user, UUID deviceId) {
         try {
-            jwtTokenWithDeviceId.setDeviceId(deviceId);
+            AccessToken accessToken = (AccessToken) createJwtTokenWithDeviceId(user, JwtTokenLifetime.ACCESS_TOKEN_LIFESPAN_IN_SECONDS.getLifetime(), JwtTokenType.ACCESS_TOKEN, deviceId);
+            RefreshToken refreshToken = (RefreshToken) createJwtTokenWithDeviceId(user, JwtTokenLifetime.REFRESH_TOKEN_LIFESPAN_IN_SECONDS.getLifetime(), JwtTokenType.REFRESH_TOKEN, deviceId);
+
+            replicaReadService.recordWrite(user.getId());
+            deviceSessionService.replaceDeviceTokens(user.getId(), accessToken, refreshToken);
 
-            jwtTokenWithDeviceIdRepository.save(jwtTokenWithDeviceId);
+            return new DeviceSession(accessToken, refreshToken);
         } catch (Exception exception) {
-            LOGGER.error("Could not update refresh token with deviceId " + deviceId + " for refreshToken " + jwtTokenWithDeviceId.getToken() + "!");
+            LOGGER.error("Could not create tokens for user " + user.getUsername() + " and deviceId " + deviceId + "!");
 
             throw new InternalException(org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR, FAILED_TO_SAVE_TO_DB, exception.getMessage());
         }
     }
 
-    <T extends JwtToken> T createJwtToken(User user, Long tokenLifetime, IJwtTokenRepository repository, JwtTokenType jwtTokenType, Boolean isWithDeviceId, Boolean isShortToken) {
-        try {
-            JwtToken jwtToken = isWithDeviceId ? jwtWithDeviceIdTokenFactory.getJwtTokenWithDeviceId(jwtTokenType) : jwtTokenFactory.getJwtToken(jwtTokenType);
-
-            List<String> userGroups = Arrays.asList("user"); // change in the future
-            String jwtTokenString = rsaService.generateToken(user.getUsername(), userGroups, tokenLifetime);
-            jwtTokenString = isShortToken ? RandomStringUtils.randomAlphanumeric(6).toUpperCase() : jwtTokenString;
-
-            jwtToken.setToken(jwtTokenString);
-            jwtToken.setUser(user);
-            jwtToken.setExpirationDate(Date.from(Instant.now().plusSeconds(tokenLifetime)));
-
-            repository.save(jwtToken);
+    private JwtTokenWithDeviceId createJwtTokenWithDeviceId(User user, Long tokenLifetime, JwtTokenType jwtTokenType, UUID deviceId) {
+        JwtTokenWithDeviceId jwtToken = jwtWithDeviceIdTokenFactory.getJwtTokenWithDeviceId(jwtTokenType, deviceId);
 
-            return (T) jwtToken;
-        } catch (Exception exception) {
-            LOGGER.error("Could not create token of type " + jwtTokenType.name() + " for user " + user.getUsername() + "!");
+        jwtToken.setUser(user);
+        jwtToken.setToken(generateTokenString(jwtToken, tokenLifetime, true));
+        jwtToken.setExpirationDate(Date.from(Instant.now().plusSeconds(tokenLifetime)));
 
-            throw new InternalException(org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR, FAILED_TO_SAVE_TO_DB, exception.getMessage());
-        }
+        return jwtToken;
     }
 
     private ResponseEntity<Object> handleTokenRefreshUnauthorizedFlow(String refreshTokenCookie, UUID deviceId) {
         try {
-            Optional<JwtTokenWithDeviceId> optionalRefreshToken = refreshTokenRepository.findByTokenAndDeviceId(refreshTokenCookie, deviceId);
+            // the user is only known once the token is found, a refresh right after the login is served by the repeat on the primary
+            Optional<JwtTokenWithDeviceId> optionalRefreshToken = replicaReadService.read(
+                    null,
+                    () -> refreshTokenRepository.findByTokenAndDeviceId(refreshTokenCookie, deviceId),
+                    refreshToken -> !refreshToken.isPresent());
 
             if (!optionalRefreshToken.isPresent()) {
                 Optional<RefreshToken> optionalRefreshTokenWithoutDeviceId = refreshTokenRepository.findByToken(refreshTokenCookie);
@@ -318,7 +391,7 @@ public class JwtService {
                 return new ResponseEntity<>(HttpStatus.UNAUTHORIZED);
             }
 
-            Optional<User> optionalUser = userRepository.findById(refreshToken.getUser().getId());
+            Optional<User> optionalUser = userCacheService.findById(refreshToken.getUserId());
 
             if (!optionalUser.isPresent()) {
                 return new ResponseEntity<>(HttpStatus.NOT_FOUND);
@@ -326,7 +399,7 @@ public class JwtService {
 
             return new ResponseEntity<>(HttpStatus.OK);
         } catch (Exception exception) {
-            LOGGER.error("Could not authorize with refresh token " + refreshTokenCookie + " and deviceId " + deviceId + "! Error: " + exception.getMessage());
+            LOGGER.error("Could not authorize with refresh token digest " + TokenDigest.prefixOf(refreshTokenCookie) + " and deviceId " + deviceId + "! Error: " + exception.getMessage());
 
             return new ResponseEntity<>(HttpStatus.UNAUTHORIZED);
         }
@@ -335,51 +408,38 @@ public class JwtService {
     private ResponseEntity handleTokenRefreshAuthorizedFlow(String refreshTokenCookie, Optional<String> authorization, UUID deviceId, HttpServletResponse httpServletResponse) {
         try {
             Optional<JwtTokenWithDeviceId> optionalRefreshToken = refreshTokenRepository.findByTokenAndDeviceId(refreshTokenCookie, deviceId);
-            Optional<User> optionalUser = userRepository.findById(optionalRefreshToken.get().getUser().getId());
-
-            deleteJwtToken(refreshTokenRepository, optionalRefreshToken.get());
+            Optional<User> optionalUser = userCacheService.findById(optionalRefreshToken.get().getUserId());
+            User user = optionalUser.get();
 
-            JwtTokenWithDeviceId newRefreshToken = createJwtToken(
-                    optionalUser.get(),
-                    JwtTokenLifetime.REFRESH_TOKEN_LIFESPAN_IN_SECONDS.getLifetime(),
-                    refreshTokenRepository,
-                    JwtTokenType.REFRESH_TOKEN,
-                    true,
-                    false);
-            Cookie cookieWithRefreshToken = createCookieWithRefreshToken(newRefreshToken.getToken());
+            // replaces the used refresh token and the access token of the device
+            DeviceSession deviceSession = createDeviceSession(user, deviceId);
+            Cookie cookieWithRefreshToken = createCookieWithRefreshToken(deviceSession.getRefreshToken().getToken());
 
-            setDeviceIdOnJwtToken(newRefreshToken, deviceId, refreshTokenRepository);
             httpServletResponse.addCookie(cookieWithRefreshToken);
             addSameSiteCookieAttribute(httpServletResponse);
 
             AuthenticationResult result = new AuthenticationResult();
-            User user = optionalUser.get();
 
             result.setUsername(user.getUsername());
-            result.setThumbnailPhoto(user.getThumbnailBase64());
-            result.setToken(createJwtToken(
-                    optionalUser.get(),
-                    JwtTokenLifetime.ACCESS_TOKEN_LIFESPAN_IN_SECONDS.getLifetime(),
-                    accessTokenRepository,
-                    JwtTokenType.ACCESS_TOKEN,
-                    true,
-                    false).getToken());
+            result.setToken(deviceSession.getAccessToken().getToken());
             result.setDisplayName(user.getName());
-            result.setThumbnailPhoto(user.getThumbnailBase64());
+            result.setThumbnailPhoto(userThumbnailService.getThumbnailUrl(user));
 
             if (authorization.isPresent()) {
                 try {
-                    AccessToken accessToken = getAccessTokenFromAuthorizationString(authorization.get());
+                    String token = authorization.get().substring(authorization.get().lastIndexOf(" ") + 1);
 
-                    deleteJwtToken(accessTokenRepository, accessToken);
+                    // only still present if the access token was issued for another device
+                    accessTokenRepository.findByToken(token).ifPresent(accessToken -> deleteJwtToken(accessTokenRepository, accessToken));
+                    verifiedTokenCacheService.invalidate(token);
                 } catch (Exception exception) {
-                    LOGGER.error("Could not delete access token for refresh token with deviceId " + deviceId + " and refreshToken " + refreshTokenCookie + "!");
+                    LOGGER.error("Could not delete access token for refresh token with deviceId " + deviceId + " and refresh token digest " + TokenDigest.prefixOf(refreshTokenCookie) + "!");
                 }
             }
 
             return new ResponseEntity<>(result, HttpStatus.OK);
         } catch (Exception exception) {
-            LOGGER.error("Could not authorize with refresh token " + refreshTokenCookie + " and deviceId " + deviceId + "!Error: " + exception.getMessage());
+            LOGGER.error("Could not authorize with refresh token digest " + TokenDigest.prefixOf(refreshTokenCookie) + " and deviceId " + deviceId + "!Error: " + exception.getMessage());
 
             return new ResponseEntity<>(HttpStatus.UNAUTHORIZED);
         }
@@ -423,17 +483,20 @@ public class JwtService {
         }
     }
 
-    public ResponseEntity<PublicKeyResponse> getPublicKey() {
-        return new ResponseEntity<>(getPublicKeyResponse(), HttpStatus.OK);
-    }
-
-    private PublicKeyResponse getPublicKeyResponse() {
-
-        final PublicKeyResponse publicKeyResponse = new PublicKeyResponse();
+    public ResponseEntity<PublicKeyResponse> getPublicKey(Optional<String> ifNoneMatch) {
+        SigningKeyring keyring = rsaService.getKeyring();
+        CacheControl cacheControl = CacheControl.maxAge(publicKeyMaxAgeInSeconds, TimeUnit.SECONDS).cachePublic();
 
-        // get public key from docker volume
-        // publicKeyResponse.setPublic_key(getProperty("PUBLIC_KEY"));
+        if (ifNoneMatch.isPresent() && ifNoneMatch.get().contains(keyring.getEntityTag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(keyring.getEntityTag())
+                    .cacheControl(cacheControl)
+                    .build();
+        }
 
-        return publicKeyResponse;
+        return ResponseEntity.ok()
+                .eTag(keyring.getEntityTag())
+                .cacheControl(cacheControl)
+                .body(keyring.getPublicKeyResponse());
     }
 }
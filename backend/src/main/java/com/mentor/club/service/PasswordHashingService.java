@@ -0,0 +1,202 @@
+package com.mentor.club.service;
+
+import com.mentor.club.exception.PasswordHashingRejectedException;
+import com.mentor.club.service.password.IPasswordEncoder;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Runs password hashing on a small pool of its own instead of the request threads, so that a burst of logins and
+ * sign-ups can not take the cpu from the cheap endpoints. Work beyond the bounded queue, or work that is not done within
+ * the timeout, is rejected with {@link PasswordHashingRejectedException}.
+ * New hashes are made by the encoder of the configured algorithm, stored hashes are verified by the encoder whose
+ * format prefix they have. Hashes of another algorithm or with other parameters are replaced with a current one after
+ * a successful login.
+ */
+@Service
+public class PasswordHashingService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(PasswordHashingService.class);
+
+    private static final String THREAD_NAME_PREFIX = "password-hashing-";
+
+    private static final String QUEUE_SIZE_METRIC = "password.hashing.queue.size";
+    private static final String WAIT_METRIC = "password.hashing.wait";
+    private static final String DURATION_METRIC = "password.hashing.duration";
+    private static final String REJECTED_METRIC = "password.hashing.rejected";
+    private static final String REHASHED_METRIC = "password.rehashed";
+
+    private MeterRegistry meterRegistry;
+
+    private final ThreadPoolExecutor executor;
+
+    private final long timeoutInMilliseconds;
+
+    private final Timer waitTimer;
+
+    private final List<IPasswordEncoder> passwordEncoders;
+
+    /**
+     * Encoder of new hashes
+     */
+    private final IPasswordEncoder currentPasswordEncoder;
+
+    @Autowired
+    public PasswordHashingService(@Value("${password-hashing.threads:1}") int threads,
+                                  @Value("${password-hashing.queue-capacity:8}") int queueCapacity,
+                                  @Value("${password-hashing.timeout-in-milliseconds:5000}") long timeoutInMilliseconds,
+                                  @Value("${password-hashing.algorithm:argon2id}") String algorithm,
+                                  List<IPasswordEncoder> passwordEncoders,
+                                  MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.timeoutInMilliseconds = timeoutInMilliseconds;
+        this.passwordEncoders = passwordEncoders;
+        this.currentPasswordEncoder = passwordEncoders.stream()
+                .filter(passwordEncoder -> passwordEncoder.getAlgorithm().equals(algorithm))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("Unsupported password hashing algorithm " + algorithm));
+
+        LOGGER.info("Hashing new passwords with " + algorithm + ".");
+
+        AtomicInteger threadCount = new AtomicInteger();
+        BlockingQueue<Runnable> queue = new ArrayBlockingQueue<>(queueCapacity);
+
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, queue, runnable -> {
+            Thread thread = new Thread(runnable, THREAD_NAME_PREFIX + threadCount.incrementAndGet());
+
+            thread.setDaemon(true);
+
+            return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+        this.waitTimer = meterRegistry.timer(WAIT_METRIC);
+
+        Gauge.builder(QUEUE_SIZE_METRIC, queue, BlockingQueue::size).register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    String hash(String plainTextPassword) {
+        return run("hash", () -> currentPasswordEncoder.encode(plainTextPassword));
+    }
+
+    /**
+     * @throws IllegalArgumentException if no encoder supports the format of the hash
+     */
+    boolean verify(String plainTextPassword, String hashedPassword) {
+        IPasswordEncoder passwordEncoder = getPasswordEncoder(hashedPassword);
+
+        if (passwordEncoder == null) {
+            throw new IllegalArgumentException("Unsupported password hash format");
+        }
+
+        return run("verify", () -> passwordEncoder.matches(plainTextPassword, hashedPassword));
+    }
+
+    /**
+     * Whether the hash was made with another algorithm or other parameters than new hashes are
+     */
+    boolean needsRehash(String hashedPassword) {
+        IPasswordEncoder passwordEncoder = getPasswordEncoder(hashedPassword);
+
+        if (passwordEncoder == null) {
+            return false;
+        }
+
+        return passwordEncoder != currentPasswordEncoder || passwordEncoder.needsRehash(hashedPassword);
+    }
+
+    private IPasswordEncoder getPasswordEncoder(String hashedPassword) {
+        for (IPasswordEncoder passwordEncoder : passwordEncoders) {
+            if (passwordEncoder.supports(hashedPassword)) {
+                return passwordEncoder;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Hashes the password with the current encoder in the background and hands the new hash to the store, only while no
+     * other work is queued so that rehashes never delay logins. A skipped rehash is retried on the next login.
+     *
+     * @param storeNewHash stores the new hash, returns false if the password changed since it was verified
+     */
+    void rehashInBackground(String plainTextPassword, Predicate<String> storeNewHash) {
+        if (!executor.getQueue().isEmpty()) {
+            meterRegistry.counter(REHASHED_METRIC, "result", "skipped").increment();
+
+            return;
+        }
+
+        try {
+            executor.execute(() -> {
+                try {
+                    String newHashedPassword = meterRegistry.timer(DURATION_METRIC, "operation", "rehash")
+                            .record(() -> currentPasswordEncoder.encode(plainTextPassword));
+                    boolean isStored = storeNewHash.test(newHashedPassword);
+
+                    meterRegistry.counter(REHASHED_METRIC, "result", isStored ? "updated" : "stale").increment();
+                } catch (Exception exception) {
+                    meterRegistry.counter(REHASHED_METRIC, "result", "failed").increment();
+
+                    LOGGER.error("Failed to rehash password. Error: " + exception.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException exception) {
+            meterRegistry.counter(REHASHED_METRIC, "result", "skipped").increment();
+        }
+    }
+
+    <T> T run(String operation, Supplier<T> work) {
+        long queuedAt = System.nanoTime();
+        Future<T> future;
+
+        try {
+            future = executor.submit(() -> {
+                waitTimer.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+
+                return meterRegistry.timer(DURATION_METRIC, "operation", operation).record(work);
+            });
+        } catch (RejectedExecutionException exception) {
+            meterRegistry.counter(REJECTED_METRIC, "reason", "queue-full").increment();
+
+            throw new PasswordHashingRejectedException("password hashing queue is full");
+        }
+
+        try {
+            return future.get(timeoutInMilliseconds, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException exception) {
+            // a queued task is dropped, a running hash can not be interrupted
+            future.cancel(true);
+            meterRegistry.counter(REJECTED_METRIC, "reason", "timeout").increment();
+
+            throw new PasswordHashingRejectedException("password hashing took longer than " + timeoutInMilliseconds + " ms");
+        } catch (InterruptedException exception) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+
+            throw new PasswordHashingRejectedException("interrupted while waiting for password hashing");
+        } catch (ExecutionException exception) {
+            if (exception.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) exception.getCause();
+            }
+
+            throw new IllegalStateException(exception.getCause());
+        }
+    }
+}
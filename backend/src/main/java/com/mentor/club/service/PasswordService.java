@@ -1,6 +1,8 @@
 package com.mentor.club.service;
 
+import com.mentor.club.exception.PasswordHashingRejectedException;
 import com.mentor.club.model.InternalResponse;
+import com.mentor.club.model.authentication.token.TokenDigest;
 import com.mentor.club.model.authentication.token.abstracts.JwtToken;
 import com.mentor.club.model.authentication.token.concretes.PasswordResetToken;
 import com.mentor.club.model.authentication.token.enums.JwtTokenLifetime;
@@ -10,9 +12,6 @@ import com.mentor.club.model.password.ChangePasswordRequest;
 import com.mentor.club.model.user.User;
 import com.mentor.club.model.user.UserStatus;
 import com.mentor.club.repository.IPasswordResetTokenRepository;
-import com.mentor.club.repository.IUserRepository;
-import org.apache.commons.lang3.RandomStringUtils;
-import org.mindrot.jbcrypt.BCrypt;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -30,7 +29,8 @@ import java.util.UUID;
 public class PasswordService {
     private static final Logger LOGGER = LoggerFactory.getLogger(PasswordService.class);
 
-    private IUserRepository userRepository;
+    private UserCacheService userCacheService;
+    private PasswordHashingService passwordHashingService;
     private AwsService awsService;
     private JwtService jwtService;
     private IPasswordResetTokenRepository passwordResetTokenRepository;
@@ -39,27 +39,45 @@ public class PasswordService {
     private String backendDeploymentUrl;
 
     @Autowired
-    public PasswordService(IUserRepository userRepository,
+    public PasswordService(UserCacheService userCacheService,
+                           PasswordHashingService passwordHashingService,
                            AwsService awsService,
                            JwtService jwtService,
                            IPasswordResetTokenRepository passwordResetTokenRepository) {
-        this.userRepository = userRepository;
+        this.userCacheService = userCacheService;
+        this.passwordHashingService = passwordHashingService;
         this.awsService = awsService;
         this.jwtService = jwtService;
         this.passwordResetTokenRepository = passwordResetTokenRepository;
     }
 
+    /**
+     * @throws PasswordHashingRejectedException if password hashing is saturated
+     */
     String hashPassword(String plainTextPassword) {
-        return BCrypt.hashpw(plainTextPassword, BCrypt.gensalt());
+        return passwordHashingService.hash(plainTextPassword);
     }
 
+    /**
+     * @throws PasswordHashingRejectedException if password hashing is saturated
+     */
     Boolean isProvidedPasswordCorrect(String plainPassword, String hashedPassword) {
-        return BCrypt.checkpw(plainPassword, hashedPassword);
+        return passwordHashingService.verify(plainPassword, hashedPassword);
+    }
+
+    /**
+     * Replaces the hash of a password that was just verified if it was made with another cost than new hashes are.
+     * Runs in the background, the login does not wait for it.
+     */
+    void rehashIfNeeded(User user, String plainPassword) {
+        if (passwordHashingService.needsRehash(user.getHashedPassword())) {
+            passwordHashingService.rehashInBackground(plainPassword, newHashedPassword -> userCacheService.updateHashedPassword(user, newHashedPassword));
+        }
     }
 
     public ResponseEntity generateResetForgottenPasswordEmail(String email) {
         try {
-            Optional<User> userWithGivenEmail = userRepository.findUserByEmail(email);
+            Optional<User> userWithGivenEmail = userCacheService.findUserByEmail(email);
 
             if (!userWithGivenEmail.isPresent()) {
                 return new ResponseEntity<>(HttpStatus.NOT_FOUND);
@@ -81,7 +99,7 @@ public class PasswordService {
 
     private ResponseEntity changeForgottenPasswordNegativeFlow(ChangeForgottenPasswordRequest changeForgottenPasswordRequest) {
         try {
-            Optional<PasswordResetToken> optionalPasswordResetToken = passwordResetTokenRepository.findByToken(changeForgottenPasswordRequest.getPasswordResetToken());
+            Optional<PasswordResetToken> optionalPasswordResetToken = passwordResetTokenRepository.findWithUserByToken(changeForgottenPasswordRequest.getPasswordResetToken());
 
             if (!optionalPasswordResetToken.isPresent()) {
                 return new ResponseEntity<>("Password reset token in not present in the db!", HttpStatus.UNAUTHORIZED);
@@ -100,7 +118,7 @@ public class PasswordService {
 
             return new ResponseEntity<>(HttpStatus.OK);
         } catch (Exception exception) {
-            LOGGER.error("Could not validate password for token " + changeForgottenPasswordRequest.getPasswordResetToken() + "!Error: " + exception.getMessage());
+            LOGGER.error("Could not validate password for token digest " + TokenDigest.prefixOf(changeForgottenPasswordRequest.getPasswordResetToken()) + "!Error: " + exception.getMessage());
 
             return new ResponseEntity<>(exception.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
         }
@@ -110,12 +128,13 @@ public class PasswordService {
         InternalResponse internalResponse = new InternalResponse();
 
         try {
-            Optional<PasswordResetToken> optionalPasswordResetToken = passwordResetTokenRepository.findByToken(changeForgottenPasswordRequest.getPasswordResetToken());
+            Optional<PasswordResetToken> optionalPasswordResetToken = passwordResetTokenRepository.findWithUserByToken(changeForgottenPasswordRequest.getPasswordResetToken());
             PasswordResetToken passwordResetToken = optionalPasswordResetToken.get();
             User user = passwordResetToken.getUser();
 
             user.setHashedPassword(hashPassword(changeForgottenPasswordRequest.getNewPassword()));
-            userRepository.save(user);
+            userCacheService.save(user);
+            jwtService.invalidateAccessTokensOfUser(user);
 
             internalResponse.setJson("Successfully changed forgotten password for user with username " + user.getUsername() + "!");
             internalResponse.setStatus(HttpStatus.OK);
@@ -126,6 +145,8 @@ public class PasswordService {
             LOGGER.debug("Status code of sending password changed successfully email: " + passwordChangedSuccessfullyEmailSentStatusCode.toString());
 
             return new ResponseEntity<>(internalResponse.getJson(), internalResponse.getStatus());
+        } catch (PasswordHashingRejectedException exception) {
+            throw exception;
         } catch (Exception exception) {
             internalResponse.setJson("Failed to change forgotten password for password token " + changeForgottenPasswordRequest.getPasswordResetToken() + ". Error: " + exception.getMessage());
             internalResponse.setStatus(HttpStatus.INTERNAL_SERVER_ERROR);
@@ -154,7 +175,7 @@ public class PasswordService {
                 return jwtValidationResult;
             }
 
-            Optional<User> user = userRepository.findUserByUsername(changePasswordRequest.getUsername());
+            Optional<User> user = userCacheService.findUserByUsername(changePasswordRequest.getUsername());
 
             if (!user.isPresent()) {
                 internalResponse.setStatus(HttpStatus.NOT_FOUND);
@@ -174,6 +195,8 @@ public class PasswordService {
             }
 
             return new ResponseEntity<>(HttpStatus.OK);
+        } catch (PasswordHashingRejectedException exception) {
+            throw exception;
         } catch (Exception exception) {
             LOGGER.error("Could not authorize password change for user " + changePasswordRequest.getUsername() + "!Error: " + exception.getMessage());
 
@@ -185,11 +208,12 @@ public class PasswordService {
         InternalResponse internalResponse = new InternalResponse();
 
         try {
-            Optional<User> optionalUser = userRepository.findUserByUsername(changePasswordRequest.getUsername());
+            Optional<User> optionalUser = userCacheService.findUserByUsername(changePasswordRequest.getUsername());
             User user = optionalUser.get();
 
             user.setHashedPassword(hashPassword(changePasswordRequest.getNewPassword()));
-            userRepository.save(user);
+            userCacheService.save(user);
+            jwtService.invalidateAccessTokensOfUser(user);
 
             internalResponse.setJson("Successfully changed password for user with username " + changePasswordRequest.getUsername() + "!");
             internalResponse.setStatus(HttpStatus.OK);
@@ -199,6 +223,8 @@ public class PasswordService {
             LOGGER.debug("Status code of sending password changed successfully email: " + passwordChangedSuccessfullyEmailSentStatusCode.toString());
 
             return new ResponseEntity<>(internalResponse.getJson(), internalResponse.getStatus());
+        } catch (PasswordHashingRejectedException exception) {
+            throw exception;
         } catch (Exception exception) {
             internalResponse.setJson("Failed to change password for user with username " + changePasswordRequest.getUsername() + ". Error: " + exception.getMessage());
             internalResponse.setStatus(HttpStatus.BAD_REQUEST);
@@ -218,13 +244,12 @@ public class PasswordService {
     }
 
     private PasswordResetToken createPasswordResetTokenForUser(User user) {
-        String token = RandomStringUtils.randomAlphanumeric(6).toUpperCase();
-
+        Long tokenLifetime = JwtTokenLifetime.PASSWORD_RESET_TOKEN_LIFESPAN_IN_SECONDS.getLifetime();
         PasswordResetToken passwordResetToken = new PasswordResetToken(JwtTokenType.PASSWORD_RESET_TOKEN);
 
-        passwordResetToken.setToken(token);
         passwordResetToken.setUser(user);
-        passwordResetToken.setExpirationDate(Date.from(Instant.now().plusSeconds(JwtTokenLifetime.PASSWORD_RESET_TOKEN_LIFESPAN_IN_SECONDS.getLifetime())));
+        passwordResetToken.setToken(jwtService.generateTokenString(passwordResetToken, tokenLifetime, false));
+        passwordResetToken.setExpirationDate(Date.from(Instant.now().plusSeconds(tokenLifetime)));
 
         return passwordResetTokenRepository.save(passwordResetToken);
     }
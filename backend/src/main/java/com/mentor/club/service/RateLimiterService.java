@@ -0,0 +1,277 @@
+package com.mentor.club.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.mentor.club.exception.RateLimitedException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In memory token buckets per rate limit policy and key, e.g. the username of a login or the address of the client.
+ * A bucket holds up to the capacity of its policy and refills it evenly over the refill period, every request takes one
+ * token and is rejected with {@link RateLimitedException} when there is none.
+ * Buckets are guarded by a fixed set of lock stripes instead of one lock, so that requests of different keys rarely
+ * wait on each other. A bucket idle for a full refill period is full again and is dropped. The buckets are per
+ * instance, every instance allows the configured rate.
+ * Buckets of client addresses live in a size bounded cache that evicts the least recently used ones. Buckets of
+ * accounts (usernames, emails) are never evicted before they are full again, otherwise flooding the limiter with made
+ * up usernames would reset the bucket of the attacked one. When their store is full, requests of new accounts are
+ * rejected until idle buckets can be dropped.
+ */
+@Service
+public class RateLimiterService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(RateLimiterService.class);
+
+    private static final String POLICIES_PROPERTY = "rate-limiting.policies";
+
+    private static final String REJECTED_METRIC = "rate.limiter.rejected";
+    private static final String ACCOUNT_BUCKETS_METRIC = "rate.limiter.account.buckets";
+
+    /**
+     * Least time between two sweeps of the full account bucket store
+     */
+    private static final long PURGE_INTERVAL_IN_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private MeterRegistry meterRegistry;
+
+    private final boolean isEnabled;
+
+    private final Map<String, RateLimitPolicy> policies;
+
+    private final Object[] locks;
+
+    private final Cache<String, TokenBucket> clientBuckets;
+
+    private final Map<String, TokenBucket> accountBuckets = new ConcurrentHashMap<>();
+
+    private final long maximumAccountBuckets;
+
+    private final Object purgeLock = new Object();
+
+    private volatile long purgedAt;
+
+    private final Ticker ticker;
+
+    @Autowired
+    public RateLimiterService(@Value("${rate-limiting.enabled:true}") boolean isEnabled,
+                              @Value("${rate-limiting.stripes:64}") int stripes,
+                              @Value("${rate-limiting.maximum-client-buckets:100000}") long maximumClientBuckets,
+                              @Value("${rate-limiting.maximum-account-buckets:100000}") long maximumAccountBuckets,
+                              Environment environment,
+                              MeterRegistry meterRegistry) {
+        this(isEnabled, stripes, maximumClientBuckets, maximumAccountBuckets,
+                Binder.get(environment).bind(POLICIES_PROPERTY, Bindable.mapOf(String.class, RateLimitPolicy.class)).orElse(Collections.emptyMap()),
+                Ticker.systemTicker(),
+                meterRegistry);
+    }
+
+    RateLimiterService(boolean isEnabled,
+                       int stripes,
+                       long maximumClientBuckets,
+                       long maximumAccountBuckets,
+                       Map<String, RateLimitPolicy> policies,
+                       Ticker ticker,
+                       MeterRegistry meterRegistry) {
+        policies.forEach((policyName, policy) -> {
+            if (policy.getCapacity() <= 0 || policy.getRefillPeriodInSeconds() <= 0) {
+                throw new IllegalStateException("Rate limit policy " + policyName + " needs a positive capacity and refill-period-in-seconds");
+            }
+        });
+
+        this.meterRegistry = meterRegistry;
+        this.isEnabled = isEnabled;
+        this.policies = policies;
+        this.maximumAccountBuckets = maximumAccountBuckets;
+        this.ticker = ticker;
+        this.purgedAt = ticker.read();
+
+        // a power of two, so that the stripe of a key is a mask of its hash
+        this.locks = new Object[Integer.highestOneBit(Math.max(1, stripes - 1)) << 1];
+
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new Object();
+        }
+
+        long longestRefillPeriodInSeconds = policies.values().stream()
+                .mapToLong(RateLimitPolicy::getRefillPeriodInSeconds)
+                .max()
+                .orElse(0);
+
+        this.clientBuckets = Caffeine.newBuilder()
+                .maximumSize(maximumClientBuckets)
+                .expireAfterAccess(longestRefillPeriodInSeconds, TimeUnit.SECONDS)
+                .ticker(ticker)
+                .build();
+
+        Gauge.builder(ACCOUNT_BUCKETS_METRIC, accountBuckets, Map::size).register(meterRegistry);
+    }
+
+    /**
+     * Takes a token from the bucket of the key under the policy. Keys are compared case insensitively, missing keys
+     * and policies that are not configured are not limited.
+     *
+     * @throws RateLimitedException if the bucket is empty, or if the policy limits accounts and there is no room for
+     *                              the bucket of a new one
+     */
+    public void acquire(String policyName, String key) {
+        RateLimitPolicy policy = policies.get(policyName);
+
+        if (!isEnabled || policy == null || key == null || key.trim().isEmpty()) {
+            return;
+        }
+
+        String bucketKey = policyName + ":" + key.trim().toLowerCase(Locale.ROOT);
+
+        if (policy.isAccountKey() && !accountBuckets.containsKey(bucketKey) && !hasRoomForAccountBucket()) {
+            meterRegistry.counter(REJECTED_METRIC, "policy", policyName).increment();
+
+            throw new RateLimitedException("rate limit " + policyName + " can not track more accounts", 1);
+        }
+
+        long waitInNanos;
+
+        synchronized (locks[getStripe(bucketKey)]) {
+            long now = ticker.read();
+            TokenBucket tokenBucket = policy.isAccountKey()
+                    ? accountBuckets.computeIfAbsent(bucketKey, newBucketKey -> new TokenBucket(policy, now))
+                    : clientBuckets.get(bucketKey, newBucketKey -> new TokenBucket(policy, now));
+
+            waitInNanos = tokenBucket.take(now);
+        }
+
+        if (waitInNanos > 0) {
+            meterRegistry.counter(REJECTED_METRIC, "policy", policyName).increment();
+
+            long retryAfterInSeconds = Math.max(1, (waitInNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+
+            throw new RateLimitedException("rate limit " + policyName + " exceeded", retryAfterInSeconds);
+        }
+    }
+
+    /**
+     * Drops the account buckets that are full again when the store is full, at most once per purge interval
+     */
+    private boolean hasRoomForAccountBucket() {
+        if (accountBuckets.size() < maximumAccountBuckets) {
+            return true;
+        }
+
+        synchronized (purgeLock) {
+            long now = ticker.read();
+
+            if (accountBuckets.size() >= maximumAccountBuckets && now - purgedAt >= PURGE_INTERVAL_IN_NANOS) {
+                purgedAt = now;
+
+                Iterator<Map.Entry<String, TokenBucket>> iterator = accountBuckets.entrySet().iterator();
+
+                while (iterator.hasNext()) {
+                    Map.Entry<String, TokenBucket> entry = iterator.next();
+
+                    synchronized (locks[getStripe(entry.getKey())]) {
+                        if (entry.getValue().isFull(now)) {
+                            iterator.remove();
+                        }
+                    }
+                }
+
+                LOGGER.info("Dropped idle account rate limit buckets, " + accountBuckets.size() + " remain.");
+            }
+
+            return accountBuckets.size() < maximumAccountBuckets;
+        }
+    }
+
+    private int getStripe(String bucketKey) {
+        int hash = bucketKey.hashCode();
+
+        return (hash ^ (hash >>> 16)) & (locks.length - 1);
+    }
+
+    /**
+     * Bound from rate-limiting.policies.&lt;name&gt;
+     */
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RateLimitPolicy {
+        /**
+         * Requests allowed in a burst
+         */
+        private int capacity;
+
+        /**
+         * Time in which an empty bucket fills up to the capacity again
+         */
+        private long refillPeriodInSeconds;
+
+        /**
+         * Whether the keys are usernames or emails, whose buckets must not be evicted by a flood of other keys
+         */
+        private boolean accountKey;
+    }
+
+    /**
+     * Guarded by the lock stripe of its key
+     */
+    private static class TokenBucket {
+        private final int capacity;
+        private final double nanosPerToken;
+
+        private double tokens;
+        private long refilledAt;
+
+        TokenBucket(RateLimitPolicy policy, long now) {
+            this.capacity = policy.getCapacity();
+            this.nanosPerToken = (double) TimeUnit.SECONDS.toNanos(policy.getRefillPeriodInSeconds()) / policy.getCapacity();
+            this.tokens = capacity;
+            this.refilledAt = now;
+        }
+
+        /**
+         * @return 0 if a token was taken, otherwise the nanoseconds until the next token
+         */
+        long take(long now) {
+            refill(now);
+
+            if (tokens >= 1) {
+                tokens--;
+
+                return 0;
+            }
+
+            return (long) Math.ceil((1 - tokens) * nanosPerToken);
+        }
+
+        boolean isFull(long now) {
+            refill(now);
+
+            return tokens >= capacity;
+        }
+
+        private void refill(long now) {
+            tokens = Math.min(capacity, tokens + (now - refilledAt) / nanosPerToken);
+            refilledAt = now;
+        }
+    }
+}
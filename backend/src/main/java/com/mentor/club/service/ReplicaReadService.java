@@ -0,0 +1,103 @@
+package com.mentor.club.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import static com.mentor.club.config.ReplicaRoutingDataSource.REPLICA_TRANSACTION_NAME;
+
+/**
+ * Runs lookups in a read only transaction that the routing data source serves from a read replica.
+ * Replicas lag behind the primary, so a lookup goes to the primary instead when this instance wrote tokens of the user
+ * within the read-your-writes window, and is repeated on the primary when the replica found nothing. Writes made on
+ * other instances are only covered by the repeat on a miss, a deleted row can be seen on the replica for as long as
+ * it lags. A lookup that fails on the replica, e.g. while it is down or in recovery, is repeated on the primary as well.
+ */
+@Service
+public class ReplicaReadService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReplicaReadService.class);
+
+    private static final String READS_METRIC = "datasource.replica.reads";
+
+    private TransactionTemplate readOnlyTransactionTemplate;
+    private MeterRegistry meterRegistry;
+
+    private final Cache<UUID, Boolean> recentlyWrittenUsers;
+
+    @Autowired
+    public ReplicaReadService(PlatformTransactionManager transactionManager,
+                              @Value("${datasource-routing.read-your-writes-window-in-milliseconds:5000}") long readYourWritesWindowInMilliseconds,
+                              @Value("${datasource-routing.recently-written-users-maximum-size:10000}") long recentlyWrittenUsersMaximumSize,
+                              MeterRegistry meterRegistry) {
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.readOnlyTransactionTemplate.setName(REPLICA_TRANSACTION_NAME);
+        this.meterRegistry = meterRegistry;
+        this.recentlyWrittenUsers = Caffeine.newBuilder()
+                .maximumSize(recentlyWrittenUsersMaximumSize)
+                .expireAfterWrite(readYourWritesWindowInMilliseconds, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    /**
+     * Sends the lookups of the user to the primary until the replicas have caught up with the write
+     */
+    public void recordWrite(UUID userId) {
+        if (userId != null) {
+            recentlyWrittenUsers.put(userId, Boolean.TRUE);
+        }
+    }
+
+    /**
+     * @param userId user whose rows are read, null if not known before the lookup
+     * @param read   the lookup, must not write
+     * @param isMiss whether the result may be caused by replica lag, such a result is read again from the primary
+     */
+    public <T> T read(UUID userId, Supplier<T> read, Predicate<T> isMiss) {
+        if (userId != null && recentlyWrittenUsers.getIfPresent(userId) != null) {
+            recordRead("primary-after-write");
+
+            return read.get();
+        }
+
+        T result;
+
+        try {
+            result = readOnlyTransactionTemplate.execute(status -> read.get());
+        } catch (DataAccessException | TransactionException exception) {
+            recordRead("primary-after-error");
+
+            LOGGER.warn("Failed to read from replica, reading from primary instead. Error: " + exception.getMessage());
+
+            return read.get();
+        }
+
+        if (isMiss.test(result)) {
+            recordRead("primary-after-miss");
+
+            return read.get();
+        }
+
+        recordRead("replica");
+
+        return result;
+    }
+
+    private void recordRead(String source) {
+        meterRegistry.counter(READS_METRIC, "source", source).increment();
+    }
+}
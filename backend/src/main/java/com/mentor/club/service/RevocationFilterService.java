@@ -0,0 +1,201 @@
+package com.mentor.club.service;
+
+import com.mentor.club.model.authentication.revocation.BloomFilter;
+import com.mentor.club.model.authentication.revocation.RevokedAccessToken;
+import com.mentor.club.model.authentication.token.abstracts.JwtToken;
+import com.mentor.club.repository.IRevokedAccessTokenRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.util.*;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the ids of revoked access tokens in Bloom filters, so that only tokens a filter reports as possibly revoked
+ * have to be checked against the db. Revocations are stored in the db, loaded at startup and synchronized periodically
+ * from other instances. There is one filter per slice of expiration time, a revocation goes into the slice in which its
+ * token expires and whole slices are dropped once they ended. No state is kept per token id.
+ */
+@Service
+public class RevocationFilterService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(RevocationFilterService.class);
+
+    private static final String METRIC_PREFIX = "jwt.revocation.filter";
+
+    /**
+     * Revocations committed by other instances shortly before the previous sync are picked up by the next one
+     */
+    private static final long SYNC_OVERLAP_IN_MILLISECONDS = 5000;
+
+    private IRevokedAccessTokenRepository revokedAccessTokenRepository;
+    private MeterRegistry meterRegistry;
+
+    @Value("${jwt.validation.revocation-filter.enabled:false}")
+    private boolean enabled;
+
+    @Value("${jwt.validation.revocation-filter.expected-insertions:10000}")
+    private int expectedInsertions;
+
+    @Value("${jwt.validation.revocation-filter.false-positive-probability:0.01}")
+    private double falsePositiveProbability;
+
+    @Value("${jwt.validation.revocation-filter.slice-in-seconds:60}")
+    private long sliceInSeconds;
+
+    private long sliceInMilliseconds;
+
+    /**
+     * Filters by the index of the expiration time slice they cover, each one is sized for all expected insertions so
+     * that a burst of revocations in one slice does not degrade it
+     */
+    private final ConcurrentNavigableMap<Long, BloomFilter> filtersBySlice = new ConcurrentSkipListMap<>();
+
+    private volatile Date lastSyncDate;
+
+    @Autowired
+    public RevocationFilterService(IRevokedAccessTokenRepository revokedAccessTokenRepository, MeterRegistry meterRegistry) {
+        this.revokedAccessTokenRepository = revokedAccessTokenRepository;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void init() {
+        if (!enabled) {
+            return;
+        }
+
+        if (expectedInsertions <= 0 || falsePositiveProbability <= 0 || falsePositiveProbability >= 1 || sliceInSeconds <= 0) {
+            throw new IllegalStateException("Revocation filter needs positive expected-insertions and slice-in-seconds and a false-positive-probability within (0, 1)");
+        }
+
+        sliceInMilliseconds = TimeUnit.SECONDS.toMillis(sliceInSeconds);
+        lastSyncDate = new Date();
+
+        revokedAccessTokenRepository.findByExpirationDateAfter(lastSyncDate).forEach(this::addToFilter);
+
+        Gauge.builder(METRIC_PREFIX + ".entries", this, RevocationFilterService::getEntryCount)
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".memory", this, RevocationFilterService::getMemoryInBytes)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".false.positive.probability", this, RevocationFilterService::getFalsePositiveProbability)
+                .register(meterRegistry);
+
+        LOGGER.info("Loaded " + getEntryCount() + " revoked access tokens into the revocation filter.");
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * False means that the token was definitely not revoked, true that it has to be checked against the db
+     */
+    public boolean mightBeRevoked(UUID tokenId) {
+        // the exp claim of a token is not exactly the stored expiration date, so every live slice is asked
+        for (BloomFilter filter : filtersBySlice.values()) {
+            if (filter.mightContain(tokenId)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Records that the token is deleted before it expired. Tokens without an id are ignored.
+     */
+    public void revoke(JwtToken jwtToken) {
+        if (jwtToken.getTokenId() == null) {
+            return;
+        }
+
+        revoke(Collections.singletonList(new RevokedAccessToken(jwtToken.getTokenId(), jwtToken.getExpirationDate())));
+    }
+
+    public void revoke(List<RevokedAccessToken> revokedAccessTokens) {
+        if (!enabled) {
+            return;
+        }
+
+        Date now = new Date();
+        List<RevokedAccessToken> unexpiredRevokedAccessTokens = revokedAccessTokens
+                .stream()
+                .filter(revokedAccessToken -> revokedAccessToken.getExpirationDate().after(now))
+                .collect(Collectors.toList());
+
+        revokedAccessTokenRepository.saveAll(unexpiredRevokedAccessTokens).forEach(this::addToFilter);
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.validation.revocation-filter.sync-interval-in-milliseconds:5000}")
+    void synchronize() {
+        if (!enabled) {
+            return;
+        }
+
+        Date now = new Date();
+        Date revokedAfter = new Date(lastSyncDate.getTime() - SYNC_OVERLAP_IN_MILLISECONDS);
+
+        try {
+            revokedAccessTokenRepository.findByRevokedAtAfter(revokedAfter).forEach(this::addToFilter);
+
+            lastSyncDate = now;
+        } catch (Exception exception) {
+            LOGGER.error("Failed to synchronize the revocation filter. Error: " + exception.getMessage());
+        }
+
+        removeEndedSlices(now);
+    }
+
+    private void addToFilter(RevokedAccessToken revokedAccessToken) {
+        if (revokedAccessToken.getExpirationDate().before(new Date())) {
+            return;
+        }
+
+        filtersBySlice
+                .computeIfAbsent(getSlice(revokedAccessToken.getExpirationDate()), slice -> new BloomFilter(expectedInsertions, falsePositiveProbability))
+                .add(revokedAccessToken.getTokenId());
+    }
+
+    /**
+     * Drops the filters of slices whose tokens have all expired
+     */
+    private void removeEndedSlices(Date now) {
+        filtersBySlice.headMap(getSlice(now)).clear();
+    }
+
+    private long getSlice(Date date) {
+        return Math.floorDiv(date.getTime(), sliceInMilliseconds);
+    }
+
+    private int getEntryCount() {
+        return filtersBySlice.values().stream().mapToInt(BloomFilter::getEntryCount).sum();
+    }
+
+    private long getMemoryInBytes() {
+        return filtersBySlice.values().stream().mapToLong(BloomFilter::getMemoryInBytes).sum();
+    }
+
+    /**
+     * Expected probability that a token that was not revoked is reported by any of the filters
+     */
+    private double getFalsePositiveProbability() {
+        double trueNegativeProbability = 1;
+
+        for (BloomFilter filter : filtersBySlice.values()) {
+            trueNegativeProbability *= 1 - filter.getFalsePositiveProbability();
+        }
+
+        return 1 - trueNegativeProbability;
+    }
+}
@@ -0,0 +1,62 @@
+package com.mentor.club.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mentor.club.model.authentication.token.enums.JwtTokenLifetime;
+import com.mentor.club.model.authentication.token.factories.SecureRandomPool;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory table of per-user session epochs. Access tokens carry the epoch of their user at the time they were minted,
+ * revoking all sessions of a user replaces the epoch. Every epoch is a random 64 bit value, so tokens minted by another
+ * instance, before a restart or before a revocation practically never match and are checked against the db instead.
+ * The table is size bounded. A user whose entry was dropped gets a new epoch, which only sends their tokens to the db.
+ */
+@Service
+public class SessionEpochService {
+    private static final String CACHE_NAME = "sessionEpochs";
+
+    private SecureRandomPool secureRandomPool;
+
+    private final Cache<String, Long> epochsByUsername;
+
+    @Autowired
+    public SessionEpochService(@Value("${jwt.validation.session-epochs.maximum-size:100000}") long maximumSize,
+                               SecureRandomPool secureRandomPool,
+                               MeterRegistry meterRegistry) {
+        this.secureRandomPool = secureRandomPool;
+        // no token outlives the access token lifetime, an epoch nobody asked for in that time can not match anymore
+        this.epochsByUsername = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterAccess(JwtTokenLifetime.ACCESS_TOKEN_LIFESPAN_IN_SECONDS.getLifetime(), TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, epochsByUsername, CACHE_NAME);
+    }
+
+    public Long getCurrentEpoch(String username) {
+        return epochsByUsername.get(username, key -> newEpoch());
+    }
+
+    void bumpEpoch(String username) {
+        epochsByUsername.put(username, newEpoch());
+    }
+
+    /**
+     * @return true only if the token was minted by this instance in the current epoch of the user
+     */
+    boolean isCurrentEpoch(String username, Long epoch) {
+        return epoch != null && epoch.equals(epochsByUsername.getIfPresent(username));
+    }
+
+    private long newEpoch() {
+        return secureRandomPool.get().nextLong();
+    }
+}
@@ -0,0 +1,236 @@
+package com.mentor.club.service;
+
+import com.mentor.club.model.authentication.token.enums.JwtTokenLifetime;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps the daily expiration date partitions of the access and refresh token tables in shape: creates the
+ * partitions that tokens issued now will land in and detaches and drops partitions whose tokens all expired.
+ * Access token partitions are optionally kept unlogged. Only one instance at a time maintains a table, the others skip it.
+ */
+@Service
+public class TokenPartitionMaintenanceService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TokenPartitionMaintenanceService.class);
+
+    private static final DateTimeFormatter PARTITION_SUFFIX_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final String PARTITION_INFIX = "_p";
+    private static final String DEFAULT_PARTITION_SUFFIX = "_default";
+    private static final String SAVEPOINT = "create_partition";
+    private static final String ACCESS_TOKEN_TABLE = "access_token";
+
+    private static final String UNLOGGED_PERSISTENCE = "u";
+    private static final String PERMANENT_PERSISTENCE = "p";
+
+    private static final String DROPPED_PARTITIONS_METRIC = "jwt.token.partitions.dropped";
+    private static final String FAILED_PARTITIONS_METRIC = "jwt.token.partitions.failed";
+
+    /**
+     * Partitioned tables with the lifetime of their tokens, which decides how far ahead partitions are needed
+     */
+    private static final Map<String, JwtTokenLifetime> PARTITIONED_TABLES = new LinkedHashMap<>();
+
+    static {
+        PARTITIONED_TABLES.put(ACCESS_TOKEN_TABLE, JwtTokenLifetime.ACCESS_TOKEN_LIFESPAN_IN_SECONDS);
+        PARTITIONED_TABLES.put("refresh_token", JwtTokenLifetime.REFRESH_TOKEN_LIFESPAN_IN_SECONDS);
+    }
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private MeterRegistry meterRegistry;
+
+    @Value("${jwt.partitions.maintenance.enabled:true}")
+    private boolean enabled;
+
+    @Value("${jwt.partitions.days-ahead-buffer:2}")
+    private int daysAheadBuffer;
+
+    @Value("${jwt.partitions.retention-after-expiration-in-days:1}")
+    private int retentionAfterExpirationInDays;
+
+    /**
+     * Skip the wal for access tokens. After a crash postgres truncates unlogged tables, clients then get a 401
+     * for their access token and mint a new one from the refresh cookie.
+     */
+    @Value("${jwt.partitions.access-token-unlogged:false}")
+    private boolean accessTokenUnlogged;
+
+    @Autowired
+    public TokenPartitionMaintenanceService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.partitions.maintenance.interval-in-milliseconds:3600000}")
+    void maintainPartitions() {
+        if (!enabled) {
+            return;
+        }
+
+        LocalDate today = LocalDate.now();
+
+        PARTITIONED_TABLES.forEach((table, tokenLifetime) -> {
+            try {
+                transactionTemplate.execute(status -> {
+                    if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(hashtext(?))", Boolean.class, table))) {
+                        LOGGER.debug("Partitions of " + table + " are maintained by another instance.");
+
+                        return null;
+                    }
+
+                    boolean unlogged = isUnlogged(table);
+
+                    alignPartitionPersistence(table, unlogged);
+                    createUpcomingPartitions(table, tokenLifetime, unlogged, today);
+                    dropExpiredPartitions(table, today);
+
+                    return null;
+                });
+            } catch (Exception exception) {
+                LOGGER.error("Failed to maintain partitions of " + table + ". Error: " + exception.getMessage());
+            }
+        });
+    }
+
+    private boolean isUnlogged(String table) {
+        return accessTokenUnlogged && ACCESS_TOKEN_TABLE.equals(table);
+    }
+
+    /**
+     * Switches existing partitions, including the default one, when the unlogged setting changed. Both directions
+     * rewrite the partition, which is cheap for short-lived access tokens.
+     */
+    private void alignPartitionPersistence(String table, boolean unlogged) {
+        List<String> partitionNames = jdbcTemplate.queryForList(
+                "SELECT child.relname FROM pg_inherits JOIN pg_class child ON child.oid = pg_inherits.inhrelid " +
+                        "WHERE pg_inherits.inhparent = ?::regclass AND child.relpersistence <> ?",
+                String.class,
+                table,
+                unlogged ? UNLOGGED_PERSISTENCE : PERMANENT_PERSISTENCE);
+
+        for (String partitionName : partitionNames) {
+            jdbcTemplate.execute("ALTER TABLE " + partitionName + (unlogged ? " SET UNLOGGED" : " SET LOGGED"));
+
+            LOGGER.info("Switched partition " + partitionName + " to " + (unlogged ? "unlogged" : "logged") + ".");
+        }
+    }
+
+    /**
+     * Every partition is created in a savepoint of its own, so that a failing day is logged and retried on the next run
+     * instead of rolling back the other days and the drops.
+     */
+    private void createUpcomingPartitions(String table, JwtTokenLifetime tokenLifetime, boolean unlogged, LocalDate today) {
+        long daysAhead = TimeUnit.SECONDS.toDays(tokenLifetime.getLifetime()) + daysAheadBuffer;
+
+        for (long day = 0; day <= daysAhead; day++) {
+            LocalDate partitionDay = today.plusDays(day);
+
+            jdbcTemplate.execute("SAVEPOINT " + SAVEPOINT);
+
+            try {
+                createPartition(table, partitionDay, unlogged);
+
+                jdbcTemplate.execute("RELEASE SAVEPOINT " + SAVEPOINT);
+            } catch (Exception exception) {
+                jdbcTemplate.execute("ROLLBACK TO SAVEPOINT " + SAVEPOINT);
+                meterRegistry.counter(FAILED_PARTITIONS_METRIC, "table", table).increment();
+
+                LOGGER.error("Failed to create partition " + getPartitionName(table, partitionDay) + ". Error: " + exception.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Postgres refuses to create a partition while the default partition holds rows of its range, which happens when
+     * maintenance fell behind or tokens outlive the days ahead. The default partition is then detached, the rows are
+     * moved into the new partition and the default partition is attached again.
+     */
+    private void createPartition(String table, LocalDate partitionDay, boolean unlogged) {
+        String partitionName = getPartitionName(table, partitionDay);
+        String defaultPartitionName = table + DEFAULT_PARTITION_SUFFIX;
+        String createPartitionStatement = "CREATE " + (unlogged ? "UNLOGGED " : "") + "TABLE IF NOT EXISTS " + partitionName + " PARTITION OF " + table +
+                " FOR VALUES FROM ('" + partitionDay + "') TO ('" + partitionDay.plusDays(1) + "')";
+        Date from = Date.valueOf(partitionDay);
+        Date to = Date.valueOf(partitionDay.plusDays(1));
+        boolean hasRowsInDefaultPartition = Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT to_regclass(?) IS NULL AND EXISTS (SELECT 1 FROM " + defaultPartitionName + " WHERE expiration_date >= ? AND expiration_date < ?)",
+                Boolean.class,
+                partitionName,
+                from,
+                to));
+
+        if (!hasRowsInDefaultPartition) {
+            jdbcTemplate.execute(createPartitionStatement);
+
+            return;
+        }
+
+        jdbcTemplate.execute("ALTER TABLE " + table + " DETACH PARTITION " + defaultPartitionName);
+        jdbcTemplate.execute(createPartitionStatement);
+
+        int movedRowCount = jdbcTemplate.update(
+                "WITH moved_rows AS (DELETE FROM " + defaultPartitionName + " WHERE expiration_date >= ? AND expiration_date < ? RETURNING *) " +
+                        "INSERT INTO " + partitionName + " SELECT * FROM moved_rows",
+                from,
+                to);
+
+        jdbcTemplate.execute("ALTER TABLE " + table + " ATTACH PARTITION " + defaultPartitionName + " DEFAULT");
+
+        LOGGER.warn("Moved " + movedRowCount + " rows from " + defaultPartitionName + " into the new partition " + partitionName + ".");
+    }
+
+    /**
+     * A partition is dropped once the day after its range is older than the retention
+     */
+    private void dropExpiredPartitions(String table, LocalDate today) {
+        Pattern partitionNamePattern = Pattern.compile(Pattern.quote(table + PARTITION_INFIX) + "(\\d{8})");
+        List<String> partitionNames = jdbcTemplate.queryForList(
+                "SELECT child.relname FROM pg_inherits JOIN pg_class child ON child.oid = pg_inherits.inhrelid " +
+                        "WHERE pg_inherits.inhparent = ?::regclass",
+                String.class,
+                table);
+
+        for (String partitionName : partitionNames) {
+            Matcher matcher = partitionNamePattern.matcher(partitionName);
+
+            if (!matcher.matches()) {
+                continue;
+            }
+
+            LocalDate partitionDay = LocalDate.parse(matcher.group(1), PARTITION_SUFFIX_FORMATTER);
+
+            if (partitionDay.plusDays(1).plusDays(retentionAfterExpirationInDays).isAfter(today)) {
+                continue;
+            }
+
+            jdbcTemplate.execute("ALTER TABLE " + table + " DETACH PARTITION " + partitionName);
+            jdbcTemplate.execute("DROP TABLE " + partitionName);
+            meterRegistry.counter(DROPPED_PARTITIONS_METRIC, "table", table).increment();
+
+            LOGGER.info("Dropped expired partition " + partitionName + ".");
+        }
+    }
+
+    private static String getPartitionName(String table, LocalDate partitionDay) {
+        return table + PARTITION_INFIX + partitionDay.format(PARTITION_SUFFIX_FORMATTER);
+    }
+}
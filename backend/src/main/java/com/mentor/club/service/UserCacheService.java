@@ -0,0 +1,157 @@
+package com.mentor.club.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.mentor.club.model.user.User;
+import com.mentor.club.repository.IUserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Size-bounded cache of users by id, username and email in front of {@link IUserRepository}.
+ * Unknown users are cached as empty results with a shorter lifetime. Writes made through this service evict the
+ * entries of the user on this instance, writes made on other instances become visible when the entries expire.
+ * Cached users are detached copies, callers always get their own copy and may modify it before saving.
+ */
+@Service
+public class UserCacheService {
+    private static final String USERS_BY_ID_CACHE_NAME = "usersById";
+    private static final String USERS_BY_USERNAME_CACHE_NAME = "usersByUsername";
+    private static final String USERS_BY_EMAIL_CACHE_NAME = "usersByEmail";
+
+    private IUserRepository userRepository;
+
+    private final Cache<UUID, Optional<User>> usersById;
+    private final Cache<String, Optional<User>> usersByUsername;
+    private final Cache<String, Optional<User>> usersByEmail;
+
+    @Autowired
+    public UserCacheService(IUserRepository userRepository,
+                            @Value("${user-cache.maximum-size:10000}") long maximumSize,
+                            @Value("${user-cache.ttl-in-seconds:30}") long ttlInSeconds,
+                            @Value("${user-cache.negative-ttl-in-seconds:5}") long negativeTtlInSeconds,
+                            MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.usersById = buildCache(maximumSize, ttlInSeconds, negativeTtlInSeconds);
+        this.usersByUsername = buildCache(maximumSize, ttlInSeconds, negativeTtlInSeconds);
+        this.usersByEmail = buildCache(maximumSize, ttlInSeconds, negativeTtlInSeconds);
+
+        CaffeineCacheMetrics.monitor(meterRegistry, usersById, USERS_BY_ID_CACHE_NAME);
+        CaffeineCacheMetrics.monitor(meterRegistry, usersByUsername, USERS_BY_USERNAME_CACHE_NAME);
+        CaffeineCacheMetrics.monitor(meterRegistry, usersByEmail, USERS_BY_EMAIL_CACHE_NAME);
+    }
+
+    private static <K> Cache<K, Optional<User>> buildCache(long maximumSize, long ttlInSeconds, long negativeTtlInSeconds) {
+        return Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new UserExpiry<K>(TimeUnit.SECONDS.toNanos(ttlInSeconds), TimeUnit.SECONDS.toNanos(negativeTtlInSeconds)))
+                .recordStats()
+                .build();
+    }
+
+    public Optional<User> findById(UUID id) {
+        return copyOf(usersById.get(id, key -> copyOf(userRepository.findById(key))));
+    }
+
+    public Optional<User> findUserByUsername(String username) {
+        return copyOf(usersByUsername.get(username, key -> copyOf(userRepository.findUserByUsername(key))));
+    }
+
+    public Optional<User> findUserByEmail(String email) {
+        return copyOf(usersByEmail.get(email, key -> copyOf(userRepository.findUserByEmail(key))));
+    }
+
+    public User save(User user) {
+        try {
+            return userRepository.save(user);
+        } finally {
+            evict(user);
+        }
+    }
+
+    /**
+     * @return whether the hash was replaced, false if the password of the user changed since it was read
+     */
+    public boolean updateHashedPassword(User user, String newHashedPassword) {
+        try {
+            return userRepository.updateHashedPassword(user.getId(), user.getHashedPassword(), newHashedPassword) > 0;
+        } finally {
+            evict(user);
+        }
+    }
+
+    public void delete(User user) {
+        try {
+            userRepository.delete(user);
+        } finally {
+            evict(user);
+        }
+    }
+
+    /**
+     * Evicts the entries of the user under its current keys and under the keys it was cached with.
+     * A load of the same key that is still running completes before the eviction, so it can not put back a stale user.
+     */
+    void evict(User user) {
+        if (user.getId() != null) {
+            Optional<User> cachedUser = usersById.getIfPresent(user.getId());
+
+            if (cachedUser != null && cachedUser.isPresent()) {
+                evictKeys(cachedUser.get());
+            }
+        }
+
+        evictKeys(user);
+    }
+
+    private void evictKeys(User user) {
+        if (user.getId() != null) {
+            usersById.invalidate(user.getId());
+        }
+
+        if (user.getUsername() != null) {
+            usersByUsername.invalidate(user.getUsername());
+        }
+
+        if (user.getEmail() != null) {
+            usersByEmail.invalidate(user.getEmail());
+        }
+    }
+
+    private static Optional<User> copyOf(Optional<User> optionalUser) {
+        return optionalUser.map(User::new);
+    }
+
+    private static class UserExpiry<K> implements Expiry<K, Optional<User>> {
+        private final long ttlInNanos;
+        private final long negativeTtlInNanos;
+
+        UserExpiry(long ttlInNanos, long negativeTtlInNanos) {
+            this.ttlInNanos = ttlInNanos;
+            this.negativeTtlInNanos = negativeTtlInNanos;
+        }
+
+        @Override
+        public long expireAfterCreate(K key, Optional<User> user, long currentTime) {
+            return user.isPresent() ? ttlInNanos : negativeTtlInNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(K key, Optional<User> user, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, user, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(K key, Optional<User> user, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -2,9 +2,11 @@ package com.mentor.club.service;
 
 import com.google.gson.Gson;
 import com.mentor.club.exception.InternalException;
+import com.mentor.club.exception.PasswordHashingRejectedException;
 import com.mentor.club.model.InternalResponse;
 import com.mentor.club.model.authentication.AuthenticationRequest;
 import com.mentor.club.model.authentication.AuthenticationResult;
+import com.mentor.club.model.authentication.token.DeviceSession;
 import com.mentor.club.model.authentication.token.abstracts.JwtToken;
 import com.mentor.club.model.authentication.token.abstracts.JwtTokenWithDeviceId;
 import com.mentor.club.model.authentication.token.concretes.EmailConfirmToken;
@@ -13,103 +15,98 @@ import com.mentor.club.model.authentication.token.enums.JwtTokenType;
 import com.mentor.club.model.user.NewUser;
 import com.mentor.club.model.user.User;
 import com.mentor.club.model.user.UserStatus;
-import com.mentor.club.repository.IAccessTokenRepository;
+import com.mentor.club.model.user.UserThumbnail;
 import com.mentor.club.repository.IEmailConfirmTokenRepository;
-import com.mentor.club.repository.IRefreshTokenRepository;
-import com.mentor.club.repository.IUserRepository;
 import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.hibernate.exception.ConstraintViolationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import javax.servlet.http.Cookie;
 import javax.servlet.http.HttpServletResponse;
 import java.util.*;
 
-import static com.mentor.club.model.error.HttpCallError.FAILED_TO_FIND_USER;
 import static com.mentor.club.model.error.HttpCallError.INVALID_INPUT;
 
 @Service
 public class UserService {
     private static final Logger LOGGER = LoggerFactory.getLogger(UserService.class);
 
-    private IUserRepository userRepository;
-    private IAccessTokenRepository accessTokenRepository;
-    private IRefreshTokenRepository refreshTokenRepository;
+    // unique indexes of users, see V3__add_token_and_user_indexes.sql
+    private static final String USERNAME_UNIQUE_CONSTRAINT = "users_username_key";
+    private static final String EMAIL_UNIQUE_CONSTRAINT = "users_email_key";
+
+    private UserCacheService userCacheService;
     private IEmailConfirmTokenRepository emailConfirmTokenRepository;
     private AwsService awsService;
     private JwtService jwtService;
     private PasswordService passwordService;
+    private UserThumbnailService userThumbnailService;
+    private TransactionTemplate transactionTemplate;
 
     @Value("${backend.deployment.url}")
     private String backendDeploymentUrl;
 
     @Autowired
-    public UserService(IUserRepository userRepository,
-                       IAccessTokenRepository accessTokenRepository,
-                       IRefreshTokenRepository refreshTokenRepository,
+    public UserService(UserCacheService userCacheService,
                        IEmailConfirmTokenRepository emailConfirmTokenRepository,
                        AwsService awsService,
                        JwtService jwtService,
-                       PasswordService passwordService) {
-        this.userRepository = userRepository;
-        this.accessTokenRepository = accessTokenRepository;
-        this.refreshTokenRepository = refreshTokenRepository;
+                       PasswordService passwordService,
+                       UserThumbnailService userThumbnailService,
+                       PlatformTransactionManager transactionManager) {
+        this.userCacheService = userCacheService;
         this.emailConfirmTokenRepository = emailConfirmTokenRepository;
         this.awsService = awsService;
         this.jwtService = jwtService;
         this.passwordService = passwordService;
+        this.userThumbnailService = userThumbnailService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     public ResponseEntity authenticate(AuthenticationRequest authentication, HttpServletResponse httpServletResponse) {
-        InternalResponse authResponse = handleAuthenticationUnauthorizedFlow(authentication);
-
-        if (!authResponse.getStatus().is2xxSuccessful()) {
-            return new ResponseEntity<>(authResponse.getJson(), authResponse.getStatus());
-        }
-
-        authResponse = handleAuthenticateAuthorizedFlow(authentication, httpServletResponse);
+        InternalResponse authResponse = handleAuthentication(authentication, httpServletResponse);
 
         return new ResponseEntity<>(authResponse.getJson(), authResponse.getStatus());
     }
 
+    /**
+     * Inserts the user, its thumbnail and its email confirm token in one transaction without looking up the username
+     * and email first. A taken username or email is reported from the unique index that rejected the insert, so
+     * concurrent sign-ups with the same username or email can not both succeed. The email is sent after the commit.
+     */
     public ResponseEntity createNewUser(NewUser newUser) {
-        try {
-            if (isEmailAlreadyInUse(newUser.getEmail())) {
-                Optional<User> userWithGivenEmail = userRepository.findUserByEmail(newUser.getEmail());
-                String username = userWithGivenEmail.get().getUsername();
-                String message = "{\"error\":\"email already in use by user with username \'" + username + "\'\"}";
+        User user = new User();
 
-                return new ResponseEntity<>(new Gson().toJson(message), HttpStatus.BAD_REQUEST);
-            }
-
-            if (isUsernameAlreadyInUse(newUser.getUsername())) {
-                Optional<User> userWithGivenEmail = userRepository.findUserByUsername(newUser.getUsername());
-                String message = "{\"error\":\"username \'" + userWithGivenEmail.get().getUsername() + "\' already in use!\"}";
-
-                return new ResponseEntity<>(new Gson().toJson(message), HttpStatus.BAD_REQUEST);
-            }
+        try {
+            Optional<UserThumbnail> thumbnail = userThumbnailService.fromBase64(newUser.getThumbnailBase64());
 
-            User user = new User();
             user.setEmail(newUser.getEmail());
             user.setUsername(newUser.getUsername());
             user.setHashedPassword(passwordService.hashPassword(newUser.getPassword()));
             user.setName(newUser.getName());
-            user.setThumbnailBase64(newUser.getThumbnailBase64());
+            thumbnail.ifPresent(userThumbnail -> user.setThumbnailVersion(userThumbnail.getVersion()));
 
-            User createdUser = userRepository.save(user);
-            JwtToken emailConfirmToken = jwtService
-                    .createJwtToken(
-                            createdUser,
-                            JwtTokenLifetime.EMAIL_CONFIRM_TOKEN_LIFESPAN_IN_SECONDS.getLifetime(),
-                            emailConfirmTokenRepository,
-                            JwtTokenType.EMAIL_CONFIRM_TOKEN,
-                            false,
-                            true);
+            JwtToken emailConfirmToken = transactionTemplate.execute(status -> {
+                User createdUser = userCacheService.save(user);
+
+                thumbnail.ifPresent(userThumbnail -> userThumbnailService.save(createdUser, userThumbnail));
+
+                return jwtService
+                        .createJwtToken(
+                                createdUser,
+                                JwtTokenLifetime.EMAIL_CONFIRM_TOKEN_LIFESPAN_IN_SECONDS.getLifetime(),
+                                emailConfirmTokenRepository,
+                                JwtTokenType.EMAIL_CONFIRM_TOKEN);
+            });
             String confirmationUrl = backendDeploymentUrl + "/user/confirm-email/" + emailConfirmToken.getToken();
 
             HttpStatus confirmationEmailSentStatusCode = awsService.sendConfirmationEmail(confirmationUrl, user, emailConfirmToken.getToken());
@@ -117,25 +114,68 @@ public class UserService {
             LOGGER.debug("Status code of sending confirmation email: " + confirmationEmailSentStatusCode.toString());
 
             return new ResponseEntity<>(HttpStatus.OK);
+        } catch (DataIntegrityViolationException exception) {
+            String violatedConstraint = getViolatedConstraint(exception);
+
+            if (EMAIL_UNIQUE_CONSTRAINT.equals(violatedConstraint)) {
+                String username = userCacheService.findUserByEmail(newUser.getEmail()).map(User::getUsername).orElse("");
+                String message = "{\"error\":\"email already in use by user with username \'" + username + "\'\"}";
+
+                return new ResponseEntity<>(new Gson().toJson(message), HttpStatus.BAD_REQUEST);
+            }
+
+            if (USERNAME_UNIQUE_CONSTRAINT.equals(violatedConstraint)) {
+                String message = "{\"error\":\"username \'" + newUser.getUsername() + "\' already in use!\"}";
+
+                return new ResponseEntity<>(new Gson().toJson(message), HttpStatus.BAD_REQUEST);
+            }
+
+            LOGGER.error("Failed to create user with username " + newUser.getUsername() + ". Error: " + exception.getMessage());
+
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        } catch (PasswordHashingRejectedException exception) {
+            throw exception;
+        } catch (InternalException exception) {
+            LOGGER.error("Failed to create user with username " + newUser.getUsername() + ". Error: " + exception.getErrorDescription());
+
+            return new ResponseEntity<>(exception.getErrorDescription(), HttpStatus.valueOf(exception.getStatusCode()));
         } catch (Exception exception) {
             LOGGER.error("Failed to create user with username " + newUser.getUsername() + ". Error: " + exception.getMessage());
 
             return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        } finally {
+            // lookups made while the insert was in flight may have cached the user as unknown
+            userCacheService.evict(user);
         }
     }
 
-    private InternalResponse handleAuthenticationUnauthorizedFlow(AuthenticationRequest authentication) {
+    /**
+     * Name of the constraint that rejected an insert, null if the violation was not reported by a constraint
+     */
+    private static String getViolatedConstraint(DataIntegrityViolationException exception) {
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException) {
+                return ((ConstraintViolationException) cause).getConstraintName();
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Loads the user and verifies the password once, then issues the tokens of the device. A wrong password is reported
+     * before a missing email confirmation, so that the details of the user are only returned to its owner.
+     */
+    private InternalResponse handleAuthentication(AuthenticationRequest authentication, HttpServletResponse httpServletResponse) {
         try {
             InternalResponse response = new InternalResponse();
             AuthenticationResult result = new AuthenticationResult();
 
-            response.setStatus(HttpStatus.OK);
-
             String username = authentication.getUsername();
             String password = authentication.getPassword();
             UUID deviceId = authentication.getDeviceId();
 
-            Optional<User> optionalUser = userRepository.findUserByUsername(username);
+            Optional<User> optionalUser = userCacheService.findUserByUsername(username);
 
             if (!optionalUser.isPresent()) {
                 LOGGER.error("User with username " + username + " not found!");
@@ -155,95 +195,51 @@ public class UserService {
                 return response;
             }
 
-            if (optionalUser.get().getUserStatus() != UserStatus.CREATED_CONFIRMED_EMAIL) {
-                LOGGER.error("User " + username + " needs to confirm email before accessing the app!");
-
-                User user = optionalUser.get();
-
-                result.setUsername(username);
-                result.setThumbnailPhoto(user.getThumbnailBase64());
-                result.setDisplayName(user.getName());
-                result.setThumbnailPhoto(user.getThumbnailBase64());
-                result.setEmail(user.getEmail());
-
-                response.setJson(result);
-                response.setStatus(HttpStatus.FORBIDDEN);
-            }
+            User user = optionalUser.get();
 
-            if (!passwordService.isProvidedPasswordCorrect(password, optionalUser.get().getHashedPassword())) {
+            if (!passwordService.isProvidedPasswordCorrect(password, user.getHashedPassword())) {
                 LOGGER.error("Incorrect password for user with username " + username + "!");
 
                 response.setJson("Incorrect password for user with username " + username + "!");
                 response.setStatus(HttpStatus.UNAUTHORIZED);
+
+                return response;
             }
 
-            return response;
-        } catch (Exception exception) {
-            LOGGER.error(ExceptionUtils.getStackTrace(exception));
+            passwordService.rehashIfNeeded(user, password);
 
-            throw new InternalException(org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR, INVALID_INPUT, exception.getMessage());
-        }
-    }
+            result.setUsername(username);
+            result.setDisplayName(user.getName());
+            result.setThumbnailPhoto(userThumbnailService.getThumbnailUrl(user));
 
-    private InternalResponse handleAuthenticateAuthorizedFlow(AuthenticationRequest authentication, HttpServletResponse httpServletResponse) {
-        try {
-            InternalResponse response = new InternalResponse();
-            AuthenticationResult result = new AuthenticationResult();
+            if (user.getUserStatus() != UserStatus.CREATED_CONFIRMED_EMAIL) {
+                LOGGER.error("User " + username + " needs to confirm email before accessing the app!");
 
-            String username = authentication.getUsername();
-            String password = authentication.getPassword();
-            UUID deviceId = authentication.getDeviceId();
+                result.setEmail(user.getEmail());
 
-            Optional<User> optionalUser = userRepository.findUserByUsername(username);
+                response.setJson(result);
+                response.setStatus(HttpStatus.FORBIDDEN);
 
-            if (!optionalUser.isPresent()) {
-                throw new InternalException(HttpStatus.BAD_REQUEST, FAILED_TO_FIND_USER);
+                return response;
             }
 
-            if (passwordService.isProvidedPasswordCorrect(password, optionalUser.get().getHashedPassword())) {
-                LOGGER.debug("Correct password for user with username " + username + "!");
-
-                User user = optionalUser.get();
-
-                jwtService.deleteAllJwtTokensForUserForDevice(user, deviceId);
-
-                JwtTokenWithDeviceId accessToken = jwtService.createJwtToken(
-                        user,
-                        JwtTokenLifetime.ACCESS_TOKEN_LIFESPAN_IN_SECONDS.getLifetime(),
-                        accessTokenRepository,
-                        JwtTokenType.ACCESS_TOKEN,
-                        true,
-                        false);
+            LOGGER.debug("Correct password for user with username " + username + "!");
 
-                jwtService.setDeviceIdOnJwtToken(accessToken, deviceId, accessTokenRepository);
+            DeviceSession deviceSession = jwtService.createDeviceSession(user, deviceId);
 
-                result.setUsername(username);
-                result.setThumbnailPhoto(user.getThumbnailBase64());
-                result.setToken(accessToken.getToken());
-                result.setDisplayName(user.getName());
-                result.setThumbnailPhoto(user.getThumbnailBase64());
+            result.setToken(deviceSession.getAccessToken().getToken());
 
-                JwtTokenWithDeviceId refreshToken = jwtService.createJwtToken(
-                        user,
-                        JwtTokenLifetime.REFRESH_TOKEN_LIFESPAN_IN_SECONDS.getLifetime(),
-                        refreshTokenRepository,
-                        JwtTokenType.REFRESH_TOKEN,
-                        true,
-                        false);
+            Cookie cookieWithRefreshToken = jwtService.createCookieWithRefreshToken(deviceSession.getRefreshToken().getToken());
 
-                jwtService.setDeviceIdOnJwtToken(refreshToken, deviceId, refreshTokenRepository);
-                Cookie cookieWithRefreshToken = jwtService.createCookieWithRefreshToken(refreshToken.getToken());
-
-                httpServletResponse.addCookie(cookieWithRefreshToken);
-                jwtService.addSameSiteCookieAttribute(httpServletResponse);
+            httpServletResponse.addCookie(cookieWithRefreshToken);
+            jwtService.addSameSiteCookieAttribute(httpServletResponse);
 
-                response.setJson(result);
-                response.setStatus(HttpStatus.OK);
-            } else {
-                response.setStatus(HttpStatus.UNAUTHORIZED);
-            }
+            response.setJson(result);
+            response.setStatus(HttpStatus.OK);
 
             return response;
+        } catch (PasswordHashingRejectedException exception) {
+            throw exception;
         } catch (Exception exception) {
             LOGGER.error(ExceptionUtils.getStackTrace(exception));
 
@@ -266,7 +262,9 @@ public class UserService {
             Optional<JwtTokenWithDeviceId> optionalAccessToken = jwtService.getOptionalAccessToken(authorization, deviceId);
             User user = optionalAccessToken.get().getUser();
 
-            userRepository.delete(user);
+            jwtService.deleteAllJwtTokensForUser(user);
+            userCacheService.delete(user);
+            jwtService.invalidateAccessTokensOfUser(user);
 
             return new ResponseEntity<>(HttpStatus.OK);
         } catch (Exception exception) {
@@ -279,7 +277,7 @@ public class UserService {
     public ResponseEntity confirmEmail(String emailConfirmTokenAsJWToken, UUID deviceId, HttpServletResponse httpServletResponse) {
         // TODO: split into successful and unsuccessful flows
         try {
-            Optional<EmailConfirmToken> optionalEmailConfirmToken = emailConfirmTokenRepository.findByToken(emailConfirmTokenAsJWToken);
+            Optional<EmailConfirmToken> optionalEmailConfirmToken = emailConfirmTokenRepository.findWithUserByToken(emailConfirmTokenAsJWToken);
 
             if (!optionalEmailConfirmToken.isPresent()) {
                 return new ResponseEntity<>("Email confirmation token not found in db or email confirmed already!", HttpStatus.NOT_FOUND);
@@ -298,28 +296,11 @@ public class UserService {
             }
 
             user.setUserStatus(UserStatus.CREATED_CONFIRMED_EMAIL);
-            userRepository.save(user);
+            userCacheService.save(user);
             emailConfirmTokenRepository.delete(emailConfirmToken);
 
-            JwtTokenWithDeviceId accessToken = jwtService.createJwtToken(
-                    user,
-                    JwtTokenLifetime.ACCESS_TOKEN_LIFESPAN_IN_SECONDS.getLifetime(),
-                    accessTokenRepository,
-                    JwtTokenType.ACCESS_TOKEN,
-                    true,
-                    false);
-
-            jwtService.setDeviceIdOnJwtToken(accessToken, deviceId, accessTokenRepository);
-
-            JwtTokenWithDeviceId refreshToken = jwtService.createJwtToken(
-                    user,
-                    JwtTokenLifetime.REFRESH_TOKEN_LIFESPAN_IN_SECONDS.getLifetime(),
-                    refreshTokenRepository,
-                    JwtTokenType.REFRESH_TOKEN,
-                    true,
-                    false);
-
-            Cookie cookieWithRefreshToken = jwtService.createCookieWithRefreshToken(refreshToken.getToken());
+            DeviceSession deviceSession = jwtService.createDeviceSession(user, deviceId);
+            Cookie cookieWithRefreshToken = jwtService.createCookieWithRefreshToken(deviceSession.getRefreshToken().getToken());
 
             httpServletResponse.addCookie(cookieWithRefreshToken);
             jwtService.addSameSiteCookieAttribute(httpServletResponse);
@@ -330,7 +311,7 @@ public class UserService {
 
             Map<String, String> wrappedAccessToken = new HashMap<>();
 
-            wrappedAccessToken.put("accessToken", accessToken.getToken());
+            wrappedAccessToken.put("accessToken", deviceSession.getAccessToken().getToken());
 
             return new ResponseEntity<>(wrappedAccessToken, HttpStatus.OK);
         } catch (Exception exception) {
@@ -341,21 +322,9 @@ public class UserService {
         }
     }
 
-    private boolean isEmailAlreadyInUse(String email) {
-        Optional<User> userWithGivenEmail = userRepository.findUserByEmail(email);
-
-        return userWithGivenEmail.isPresent();
-    }
-
-    private boolean isUsernameAlreadyInUse(String username) {
-        Optional<User> userWithGivenUsername = userRepository.findUserByUsername(username);
-
-        return userWithGivenUsername.isPresent();
-    }
-
     public ResponseEntity resendConfirmationEmail(String email) {
         try {
-            Optional<User> optionalUser = userRepository.findUserByEmail(email);
+            Optional<User> optionalUser = userCacheService.findUserByEmail(email);
 
             if (!optionalUser.isPresent()) {
                 return new ResponseEntity<>("User with such email not found in db: " + email, HttpStatus.NOT_FOUND);
@@ -375,9 +344,7 @@ public class UserService {
                             user,
                             JwtTokenLifetime.EMAIL_CONFIRM_TOKEN_LIFESPAN_IN_SECONDS.getLifetime(),
                             emailConfirmTokenRepository,
-                            JwtTokenType.EMAIL_CONFIRM_TOKEN,
-                            false,
-                            true);
+                            JwtTokenType.EMAIL_CONFIRM_TOKEN);
             String confirmationUrl = backendDeploymentUrl + "/user/confirm-email/" + emailConfirmToken.getToken();
 
             HttpStatus confirmationEmailSentStatusCode = awsService.sendConfirmationEmail(confirmationUrl, user, emailConfirmToken.getToken());
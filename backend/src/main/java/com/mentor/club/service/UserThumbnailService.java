@@ -0,0 +1,142 @@
+package com.mentor.club.service;
+
+import com.mentor.club.exception.InternalException;
+import com.mentor.club.model.user.User;
+import com.mentor.club.model.user.UserThumbnail;
+import com.mentor.club.repository.IUserThumbnailRepository;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+
+import java.util.Base64;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static com.mentor.club.model.error.HttpCallError.INVALID_INPUT;
+
+@Service
+public class UserThumbnailService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(UserThumbnailService.class);
+
+    private static final Pattern DATA_URL_PATTERN = Pattern.compile("^data:([^;,]+)?(;[^,]*)?,(.*)$", Pattern.DOTALL);
+
+    private IUserThumbnailRepository userThumbnailRepository;
+
+    @Value("${backend.deployment.url}")
+    private String backendDeploymentUrl;
+
+    /**
+     * Thumbnail urls change with the thumbnail version, so responses can be cached for long
+     */
+    @Value("${user-thumbnail.max-age-in-seconds:86400}")
+    private long maxAgeInSeconds;
+
+    @Autowired
+    public UserThumbnailService(IUserThumbnailRepository userThumbnailRepository) {
+        this.userThumbnailRepository = userThumbnailRepository;
+    }
+
+    /**
+     * Decodes a thumbnail given as plain base64 or as base64 data url. The user id is set when the thumbnail is saved.
+     */
+    Optional<UserThumbnail> fromBase64(String thumbnailBase64) {
+        if (StringUtils.isEmpty(thumbnailBase64)) {
+            return Optional.empty();
+        }
+
+        String contentType = MediaType.APPLICATION_OCTET_STREAM_VALUE;
+        String encodedImage = thumbnailBase64;
+        Matcher dataUrlMatcher = DATA_URL_PATTERN.matcher(thumbnailBase64);
+
+        if (dataUrlMatcher.matches()) {
+            contentType = toImageContentType(dataUrlMatcher.group(1));
+            encodedImage = dataUrlMatcher.group(3);
+        }
+
+        try {
+            UserThumbnail userThumbnail = new UserThumbnail();
+            byte[] image = Base64.getMimeDecoder().decode(encodedImage);
+
+            userThumbnail.setContentType(contentType);
+            userThumbnail.setImage(image);
+            userThumbnail.setVersion(DigestUtils.md5DigestAsHex(image));
+
+            return Optional.of(userThumbnail);
+        } catch (IllegalArgumentException exception) {
+            LOGGER.error("Failed to decode thumbnail. Error: " + exception.getMessage());
+
+            throw new InternalException(HttpStatus.BAD_REQUEST, INVALID_INPUT, "thumbnailBase64 is not valid base64");
+        }
+    }
+
+    /**
+     * Thumbnails are served from this origin, so only raster image types are kept as given
+     */
+    private static String toImageContentType(String contentType) {
+        try {
+            MediaType mediaType = MediaType.parseMediaType(contentType);
+
+            if ("image".equals(mediaType.getType()) && !mediaType.getSubtype().contains("svg")) {
+                return mediaType.toString();
+            }
+        } catch (InvalidMediaTypeException exception) {
+            LOGGER.debug("Ignoring invalid thumbnail content type " + contentType + ".");
+        }
+
+        return MediaType.APPLICATION_OCTET_STREAM_VALUE;
+    }
+
+    void save(User user, UserThumbnail userThumbnail) {
+        userThumbnail.setUserId(user.getId());
+        userThumbnailRepository.save(userThumbnail);
+    }
+
+    /**
+     * Versioned url of the user's thumbnail, null if the user has none
+     */
+    public String getThumbnailUrl(User user) {
+        if (user.getThumbnailVersion() == null) {
+            return null;
+        }
+
+        return backendDeploymentUrl + "/user/" + user.getId() + "/thumbnail?version=" + user.getThumbnailVersion();
+    }
+
+    public ResponseEntity<byte[]> getThumbnail(UUID userId, Optional<String> ifNoneMatch) {
+        Optional<UserThumbnail> optionalUserThumbnail = userThumbnailRepository.findById(userId);
+
+        if (!optionalUserThumbnail.isPresent()) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+
+        UserThumbnail userThumbnail = optionalUserThumbnail.get();
+        String entityTag = "\"" + userThumbnail.getVersion() + "\"";
+        CacheControl cacheControl = CacheControl.maxAge(maxAgeInSeconds, TimeUnit.SECONDS).cachePublic();
+
+        if (ifNoneMatch.isPresent() && ifNoneMatch.get().contains(entityTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(entityTag)
+                    .cacheControl(cacheControl)
+                    .build();
+        }
+
+        return ResponseEntity.ok()
+                .eTag(entityTag)
+                .cacheControl(cacheControl)
+                .header("X-Content-Type-Options", "nosniff")
+                .contentType(MediaType.parseMediaType(userThumbnail.getContentType()))
+                .body(userThumbnail.getImage());
+    }
+}
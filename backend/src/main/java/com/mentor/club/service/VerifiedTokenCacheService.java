@@ -0,0 +1,86 @@
+package com.mentor.club.service;
+
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.mentor.club.model.authentication.token.TokenDigest;
+import com.mentor.club.model.authentication.token.enums.JwtTokenLifetime;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static com.mentor.club.service.RsaService.USERNAME_CLAIM;
+
+/**
+ * Size-bounded cache of access tokens whose signature was already verified, keyed by the token digest.
+ * An entry never outlives the exp claim of its token. Entries survive a key reload until they expire.
+ */
+@Service
+public class VerifiedTokenCacheService {
+    private static final String CACHE_NAME = "verifiedTokens";
+
+    private static final long MAXIMUM_ENTRY_LIFETIME_IN_NANOS = TimeUnit.SECONDS.toNanos(JwtTokenLifetime.ACCESS_TOKEN_LIFESPAN_IN_SECONDS.getLifetime());
+
+    private final Cache<ByteBuffer, DecodedJWT> cache;
+
+    @Autowired
+    public VerifiedTokenCacheService(@Value("${jwt.verified-token-cache.maximum-size:10000}") long maximumSize,
+                                     MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new TokenExpiry())
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Returns the cached decoded token or verifies it with the given verifier. Failed verifications are not cached.
+     */
+    DecodedJWT getOrVerify(String token, Function<String, DecodedJWT> verifier) {
+        return cache.get(toKey(token), key -> verifier.apply(token));
+    }
+
+    void invalidate(String token) {
+        cache.invalidate(toKey(token));
+    }
+
+    void invalidateAllForUser(String username) {
+        cache.asMap().values().removeIf(decodedJWT -> username.equals(decodedJWT.getClaim(USERNAME_CLAIM).asString()));
+    }
+
+    private static ByteBuffer toKey(String token) {
+        return ByteBuffer.wrap(TokenDigest.of(token));
+    }
+
+    private static class TokenExpiry implements Expiry<ByteBuffer, DecodedJWT> {
+        @Override
+        public long expireAfterCreate(ByteBuffer key, DecodedJWT decodedJWT, long currentTime) {
+            if (decodedJWT.getExpiresAt() == null) {
+                return MAXIMUM_ENTRY_LIFETIME_IN_NANOS;
+            }
+
+            long nanosUntilExpiration = TimeUnit.MILLISECONDS.toNanos(decodedJWT.getExpiresAt().getTime() - System.currentTimeMillis());
+
+            return Math.max(0, Math.min(nanosUntilExpiration, MAXIMUM_ENTRY_LIFETIME_IN_NANOS));
+        }
+
+        @Override
+        public long expireAfterUpdate(ByteBuffer key, DecodedJWT decodedJWT, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(ByteBuffer key, DecodedJWT decodedJWT, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.mentor.club.service.password;
+
+import com.mentor.club.model.authentication.token.factories.SecureRandomPool;
+import org.bouncycastle.crypto.generators.Argon2BytesGenerator;
+import org.bouncycastle.crypto.params.Argon2Parameters;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Base64;
+
+/**
+ * Argon2id hashes in the PHC string format of the reference implementation:
+ * $argon2id$v=19$m=19456,t=2,p=1$salt$hash with unpadded base64 salt and hash.
+ * Every verification allocates the configured memory, which bounds how many may run at once in the container.
+ */
+@Component
+public class Argon2idPasswordEncoder implements IPasswordEncoder {
+    public static final String ALGORITHM = "argon2id";
+
+    private static final String PREFIX = "$argon2id$";
+    private static final int SALT_LENGTH_IN_BYTES = 16;
+    private static final int HASH_LENGTH_IN_BYTES = 32;
+
+    private SecureRandomPool secureRandomPool;
+
+    private final int memoryInKibibytes;
+    private final int iterations;
+    private final int parallelism;
+
+    @Autowired
+    public Argon2idPasswordEncoder(SecureRandomPool secureRandomPool,
+                                   @Value("${password-hashing.argon2id.memory-in-kibibytes:19456}") int memoryInKibibytes,
+                                   @Value("${password-hashing.argon2id.iterations:2}") int iterations,
+                                   @Value("${password-hashing.argon2id.parallelism:1}") int parallelism) {
+        this.secureRandomPool = secureRandomPool;
+        this.memoryInKibibytes = memoryInKibibytes;
+        this.iterations = iterations;
+        this.parallelism = parallelism;
+    }
+
+    @Override
+    public String getAlgorithm() {
+        return ALGORITHM;
+    }
+
+    @Override
+    public String encode(String plainTextPassword) {
+        byte[] salt = new byte[SALT_LENGTH_IN_BYTES];
+
+        secureRandomPool.get().nextBytes(salt);
+
+        byte[] hash = hash(plainTextPassword, salt, memoryInKibibytes, iterations, parallelism, HASH_LENGTH_IN_BYTES);
+        Base64.Encoder encoder = Base64.getEncoder().withoutPadding();
+
+        return PREFIX + "v=" + Argon2Parameters.ARGON2_VERSION_13 +
+                "$m=" + memoryInKibibytes + ",t=" + iterations + ",p=" + parallelism +
+                "$" + encoder.encodeToString(salt) + "$" + encoder.encodeToString(hash);
+    }
+
+    @Override
+    public boolean matches(String plainTextPassword, String hashedPassword) {
+        Argon2idHash argon2idHash = Argon2idHash.parse(hashedPassword);
+        byte[] hash = hash(plainTextPassword, argon2idHash.salt, argon2idHash.memoryInKibibytes, argon2idHash.iterations,
+                argon2idHash.parallelism, argon2idHash.hash.length);
+
+        return MessageDigest.isEqual(hash, argon2idHash.hash);
+    }
+
+    @Override
+    public boolean supports(String hashedPassword) {
+        return hashedPassword != null && hashedPassword.startsWith(PREFIX);
+    }
+
+    @Override
+    public boolean needsRehash(String hashedPassword) {
+        Argon2idHash argon2idHash = Argon2idHash.parse(hashedPassword);
+
+        return argon2idHash.memoryInKibibytes != memoryInKibibytes
+                || argon2idHash.iterations != iterations
+                || argon2idHash.parallelism != parallelism;
+    }
+
+    private static byte[] hash(String plainTextPassword, byte[] salt, int memoryInKibibytes, int iterations, int parallelism, int hashLength) {
+        Argon2Parameters parameters = new Argon2Parameters.Builder(Argon2Parameters.ARGON2_id)
+                .withVersion(Argon2Parameters.ARGON2_VERSION_13)
+                .withMemoryAsKB(memoryInKibibytes)
+                .withIterations(iterations)
+                .withParallelism(parallelism)
+                .withSalt(salt)
+                .build();
+        Argon2BytesGenerator generator = new Argon2BytesGenerator();
+        byte[] hash = new byte[hashLength];
+
+        generator.init(parameters);
+        generator.generateBytes(plainTextPassword.getBytes(StandardCharsets.UTF_8), hash);
+
+        return hash;
+    }
+
+    private static class Argon2idHash {
+        private int memoryInKibibytes;
+        private int iterations;
+        private int parallelism;
+        private byte[] salt;
+        private byte[] hash;
+
+        /**
+         * @throws IllegalArgumentException if the hash is not an argon2id hash of version 19
+         */
+        private static Argon2idHash parse(String hashedPassword) {
+            String[] parts = hashedPassword == null ? new String[0] : hashedPassword.split("\\$");
+
+            if (parts.length != 6 || !parts[0].isEmpty() || !ALGORITHM.equals(parts[1])
+                    || !("v=" + Argon2Parameters.ARGON2_VERSION_13).equals(parts[2])) {
+                throw new IllegalArgumentException("Invalid argon2id hash");
+            }
+
+            Argon2idHash argon2idHash = new Argon2idHash();
+
+            try {
+                for (String parameter : parts[3].split(",")) {
+                    String[] nameAndValue = parameter.split("=", 2);
+                    int value = Integer.parseInt(nameAndValue[1]);
+
+                    switch (nameAndValue[0]) {
+                        case "m":
+                            argon2idHash.memoryInKibibytes = value;
+                            break;
+                        case "t":
+                            argon2idHash.iterations = value;
+                            break;
+                        case "p":
+                            argon2idHash.parallelism = value;
+                            break;
+                        default:
+                            throw new IllegalArgumentException("Invalid argon2id parameter " + nameAndValue[0]);
+                    }
+                }
+
+                argon2idHash.salt = Base64.getDecoder().decode(parts[4]);
+                argon2idHash.hash = Base64.getDecoder().decode(parts[5]);
+            } catch (ArrayIndexOutOfBoundsException exception) {
+                throw new IllegalArgumentException("Invalid argon2id hash");
+            }
+
+            if (argon2idHash.memoryInKibibytes <= 0 || argon2idHash.iterations <= 0 || argon2idHash.parallelism <= 0 || argon2idHash.hash.length == 0) {
+                throw new IllegalArgumentException("Invalid argon2id hash");
+            }
+
+            return argon2idHash;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.mentor.club.service.password;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.mindrot.jbcrypt.BCrypt;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BCrypt hashes ($2a$10$...) of jBCrypt. The cost is calibrated at startup to the target latency per hash on the
+ * hardware the service runs on, unless it is configured.
+ */
+@Component
+public class BCryptPasswordEncoder implements IPasswordEncoder {
+    private static final Logger LOGGER = LoggerFactory.getLogger(BCryptPasswordEncoder.class);
+
+    public static final String ALGORITHM = "bcrypt";
+
+    private static final String COST_METRIC = "password.hashing.bcrypt.cost";
+
+    /**
+     * Cost of BCrypt.gensalt(), used until the calibration ran
+     */
+    private static final int DEFAULT_COST = 10;
+
+    private static final int CALIBRATION_RUNS = 3;
+
+    /**
+     * Cost of new hashes, 0 to calibrate it at startup
+     */
+    @Value("${password-hashing.bcrypt.cost:0}")
+    private int configuredCost;
+
+    @Value("${password-hashing.bcrypt.target-latency-in-milliseconds:100}")
+    private long targetLatencyInMilliseconds;
+
+    @Value("${password-hashing.bcrypt.minimum-cost:10}")
+    private int minimumCost;
+
+    @Value("${password-hashing.bcrypt.maximum-cost:16}")
+    private int maximumCost;
+
+    private volatile int cost = DEFAULT_COST;
+
+    @Autowired
+    public BCryptPasswordEncoder(MeterRegistry meterRegistry) {
+        Gauge.builder(COST_METRIC, this, BCryptPasswordEncoder::getCost).register(meterRegistry);
+    }
+
+    /**
+     * Picks the highest cost between the minimum and the maximum whose hash takes at most the target latency. Every
+     * cost step doubles the time of a hash, so only the minimum cost is measured.
+     */
+    @PostConstruct
+    void calibrate() {
+        if (configuredCost > 0) {
+            cost = configuredCost;
+
+            LOGGER.info("Using configured BCrypt cost " + cost + ".");
+
+            return;
+        }
+
+        long hashTimeInNanos = Long.MAX_VALUE;
+
+        // the first run also warms up the jit
+        for (int i = 0; i <= CALIBRATION_RUNS; i++) {
+            long start = System.nanoTime();
+
+            BCrypt.hashpw("calibration", BCrypt.gensalt(minimumCost));
+
+            if (i > 0) {
+                hashTimeInNanos = Math.min(hashTimeInNanos, System.nanoTime() - start);
+            }
+        }
+
+        long targetLatencyInNanos = TimeUnit.MILLISECONDS.toNanos(targetLatencyInMilliseconds);
+        int calibratedCost = minimumCost;
+
+        while (calibratedCost < maximumCost && hashTimeInNanos * 2 <= targetLatencyInNanos) {
+            hashTimeInNanos *= 2;
+            calibratedCost++;
+        }
+
+        cost = calibratedCost;
+
+        LOGGER.info("Calibrated BCrypt cost " + cost + ", a hash takes about " + TimeUnit.NANOSECONDS.toMillis(hashTimeInNanos) + " ms.");
+    }
+
+    public int getCost() {
+        return cost;
+    }
+
+    @Override
+    public String getAlgorithm() {
+        return ALGORITHM;
+    }
+
+    @Override
+    public String encode(String plainTextPassword) {
+        return BCrypt.hashpw(plainTextPassword, BCrypt.gensalt(cost));
+    }
+
+    @Override
+    public boolean matches(String plainTextPassword, String hashedPassword) {
+        return BCrypt.checkpw(plainTextPassword, hashedPassword);
+    }
+
+    @Override
+    public boolean supports(String hashedPassword) {
+        return getCost(hashedPassword) > 0;
+    }
+
+    @Override
+    public boolean needsRehash(String hashedPassword) {
+        return getCost(hashedPassword) != cost;
+    }
+
+    /**
+     * Cost of a BCrypt hash ($2a$10$...), -1 if it is not one
+     */
+    public static int getCost(String hashedPassword) {
+        String[] parts = hashedPassword == null ? new String[0] : hashedPassword.split("\\$");
+
+        if (parts.length < 4 || !parts[0].isEmpty() || !parts[1].startsWith("2")) {
+            return -1;
+        }
+
+        try {
+            return Integer.parseInt(parts[2]);
+        } catch (NumberFormatException exception) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.mentor.club.service.password;
+
+/**
+ * Hashes passwords with one algorithm. Hashes are self-describing strings starting with the prefix of their format,
+ * so that hashes of every supported algorithm can be verified side by side.
+ */
+public interface IPasswordEncoder {
+    /**
+     * Name used in the password-hashing.algorithm configuration
+     */
+    String getAlgorithm();
+
+    String encode(String plainTextPassword);
+
+    /**
+     * @throws IllegalArgumentException if the hash is not one of this encoder
+     */
+    boolean matches(String plainTextPassword, String hashedPassword);
+
+    /**
+     * Whether the hash has the format of this encoder
+     */
+    boolean supports(String hashedPassword);
+
+    /**
+     * Whether the hash of this encoder was made with other parameters than new hashes are
+     */
+    boolean needsRehash(String hashedPassword);
+}
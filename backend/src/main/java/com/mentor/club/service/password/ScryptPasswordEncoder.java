@@ -0,0 +1,137 @@
+package com.mentor.club.service.password;
+
+import com.mentor.club.model.authentication.token.factories.SecureRandomPool;
+import org.bouncycastle.crypto.generators.SCrypt;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Base64;
+
+/**
+ * scrypt hashes in the PHC string format of passlib: $scrypt$ln=15,r=8,p=1$salt$hash with unpadded base64 salt and
+ * hash, ln being the base 2 logarithm of the cpu/memory cost. A verification allocates 128 * r * 2^ln bytes.
+ */
+@Component
+public class ScryptPasswordEncoder implements IPasswordEncoder {
+    public static final String ALGORITHM = "scrypt";
+
+    private static final String PREFIX = "$scrypt$";
+    private static final int SALT_LENGTH_IN_BYTES = 16;
+    private static final int HASH_LENGTH_IN_BYTES = 32;
+
+    private SecureRandomPool secureRandomPool;
+
+    private final int costLog2;
+    private final int blockSize;
+    private final int parallelism;
+
+    @Autowired
+    public ScryptPasswordEncoder(SecureRandomPool secureRandomPool,
+                                 @Value("${password-hashing.scrypt.cost-log2:15}") int costLog2,
+                                 @Value("${password-hashing.scrypt.block-size:8}") int blockSize,
+                                 @Value("${password-hashing.scrypt.parallelism:1}") int parallelism) {
+        this.secureRandomPool = secureRandomPool;
+        this.costLog2 = costLog2;
+        this.blockSize = blockSize;
+        this.parallelism = parallelism;
+    }
+
+    @Override
+    public String getAlgorithm() {
+        return ALGORITHM;
+    }
+
+    @Override
+    public String encode(String plainTextPassword) {
+        byte[] salt = new byte[SALT_LENGTH_IN_BYTES];
+
+        secureRandomPool.get().nextBytes(salt);
+
+        byte[] hash = hash(plainTextPassword, salt, costLog2, blockSize, parallelism, HASH_LENGTH_IN_BYTES);
+        Base64.Encoder encoder = Base64.getEncoder().withoutPadding();
+
+        return PREFIX + "ln=" + costLog2 + ",r=" + blockSize + ",p=" + parallelism +
+                "$" + encoder.encodeToString(salt) + "$" + encoder.encodeToString(hash);
+    }
+
+    @Override
+    public boolean matches(String plainTextPassword, String hashedPassword) {
+        ScryptHash scryptHash = ScryptHash.parse(hashedPassword);
+        byte[] hash = hash(plainTextPassword, scryptHash.salt, scryptHash.costLog2, scryptHash.blockSize, scryptHash.parallelism, scryptHash.hash.length);
+
+        return MessageDigest.isEqual(hash, scryptHash.hash);
+    }
+
+    @Override
+    public boolean supports(String hashedPassword) {
+        return hashedPassword != null && hashedPassword.startsWith(PREFIX);
+    }
+
+    @Override
+    public boolean needsRehash(String hashedPassword) {
+        ScryptHash scryptHash = ScryptHash.parse(hashedPassword);
+
+        return scryptHash.costLog2 != costLog2 || scryptHash.blockSize != blockSize || scryptHash.parallelism != parallelism;
+    }
+
+    private static byte[] hash(String plainTextPassword, byte[] salt, int costLog2, int blockSize, int parallelism, int hashLength) {
+        return SCrypt.generate(plainTextPassword.getBytes(StandardCharsets.UTF_8), salt, 1 << costLog2, blockSize, parallelism, hashLength);
+    }
+
+    private static class ScryptHash {
+        private int costLog2;
+        private int blockSize;
+        private int parallelism;
+        private byte[] salt;
+        private byte[] hash;
+
+        /**
+         * @throws IllegalArgumentException if the hash is not a scrypt hash
+         */
+        private static ScryptHash parse(String hashedPassword) {
+            String[] parts = hashedPassword == null ? new String[0] : hashedPassword.split("\\$");
+
+            if (parts.length != 5 || !parts[0].isEmpty() || !ALGORITHM.equals(parts[1])) {
+                throw new IllegalArgumentException("Invalid scrypt hash");
+            }
+
+            ScryptHash scryptHash = new ScryptHash();
+
+            try {
+                for (String parameter : parts[2].split(",")) {
+                    String[] nameAndValue = parameter.split("=", 2);
+                    int value = Integer.parseInt(nameAndValue[1]);
+
+                    switch (nameAndValue[0]) {
+                        case "ln":
+                            scryptHash.costLog2 = value;
+                            break;
+                        case "r":
+                            scryptHash.blockSize = value;
+                            break;
+                        case "p":
+                            scryptHash.parallelism = value;
+                            break;
+                        default:
+                            throw new IllegalArgumentException("Invalid scrypt parameter " + nameAndValue[0]);
+                    }
+                }
+
+                scryptHash.salt = Base64.getDecoder().decode(parts[3]);
+                scryptHash.hash = Base64.getDecoder().decode(parts[4]);
+            } catch (ArrayIndexOutOfBoundsException exception) {
+                throw new IllegalArgumentException("Invalid scrypt hash");
+            }
+
+            // bounds the memory an invalid hash could make a verification allocate
+            if (scryptHash.costLog2 <= 0 || scryptHash.costLog2 > 24 || scryptHash.blockSize <= 0 || scryptHash.parallelism <= 0 || scryptHash.hash.length == 0) {
+                throw new IllegalArgumentException("Invalid scrypt hash");
+            }
+
+            return scryptHash;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+-- Schema as generated by hibernate ddl-auto: update before migrations were introduced. Existing databases are
+-- baselined at this version, so this script only runs against empty databases.
+
+CREATE TABLE IF NOT EXISTS users (
+    id               uuid         NOT NULL,
+    name             varchar(255),
+    username         varchar(255),
+    email            varchar(255),
+    hashed_password  varchar(255),
+    thumbnail_base64 varchar(255),
+    status           integer,
+    CONSTRAINT users_pkey PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS access_token (
+    id              uuid    NOT NULL,
+    token           varchar(1024),
+    user_id         uuid    NOT NULL,
+    expiration_date timestamp,
+    token_type      integer,
+    device_id       uuid,
+    CONSTRAINT access_token_pkey PRIMARY KEY (id),
+    CONSTRAINT access_token_user_id_fkey FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS refresh_token (
+    id              uuid    NOT NULL,
+    token           varchar(1024),
+    user_id         uuid    NOT NULL,
+    expiration_date timestamp,
+    token_type      integer,
+    device_id       uuid,
+    CONSTRAINT refresh_token_pkey PRIMARY KEY (id),
+    CONSTRAINT refresh_token_user_id_fkey FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS email_confirm_token (
+    id              uuid    NOT NULL,
+    token           varchar(1024),
+    user_id         uuid    NOT NULL,
+    expiration_date timestamp,
+    token_type      integer,
+    CONSTRAINT email_confirm_token_pkey PRIMARY KEY (id),
+    CONSTRAINT email_confirm_token_user_id_fkey FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS password_reset_token (
+    id              uuid    NOT NULL,
+    token           varchar(1024),
+    user_id         uuid    NOT NULL,
+    expiration_date timestamp,
+    token_type      integer,
+    CONSTRAINT password_reset_token_pkey PRIMARY KEY (id),
+    CONSTRAINT password_reset_token_user_id_fkey FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE
+);
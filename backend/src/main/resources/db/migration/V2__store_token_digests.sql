@@ -0,0 +1,39 @@
+ALTER TABLE access_token ADD COLUMN IF NOT EXISTS token_id uuid;
+
+ALTER TABLE access_token ADD COLUMN IF NOT EXISTS token_digest bytea;
+ALTER TABLE refresh_token ADD COLUMN IF NOT EXISTS token_digest bytea;
+ALTER TABLE email_confirm_token ADD COLUMN IF NOT EXISTS token_digest bytea;
+ALTER TABLE password_reset_token ADD COLUMN IF NOT EXISTS token_digest bytea;
+
+-- the digest of tokens stored before only their digest was persisted is computed from their plain value, the same
+-- SHA-256 of the UTF-8 bytes as TokenDigest, so existing sessions and pending codes stay valid. Databases created by
+-- ddl-auto after the token column was removed from the entities have no plain value to hash.
+DO $$
+DECLARE
+    token_table text;
+BEGIN
+    FOREACH token_table IN ARRAY ARRAY['access_token', 'refresh_token', 'email_confirm_token', 'password_reset_token'] LOOP
+        IF EXISTS (SELECT 1 FROM information_schema.columns
+                   WHERE table_schema = current_schema() AND table_name = token_table AND column_name = 'token') THEN
+            EXECUTE format('UPDATE %I SET token_digest = sha256(convert_to(token, ''UTF8'')) WHERE token_digest IS NULL', token_table);
+        END IF;
+    END LOOP;
+END
+$$;
+
+ALTER TABLE access_token DROP COLUMN IF EXISTS token;
+ALTER TABLE refresh_token DROP COLUMN IF EXISTS token;
+ALTER TABLE email_confirm_token DROP COLUMN IF EXISTS token;
+ALTER TABLE password_reset_token DROP COLUMN IF EXISTS token;
+
+ALTER TABLE access_token ALTER COLUMN token_digest SET NOT NULL;
+ALTER TABLE refresh_token ALTER COLUMN token_digest SET NOT NULL;
+ALTER TABLE email_confirm_token ALTER COLUMN token_digest SET NOT NULL;
+ALTER TABLE password_reset_token ALTER COLUMN token_digest SET NOT NULL;
+
+CREATE TABLE IF NOT EXISTS revoked_access_token (
+    token_id        uuid      NOT NULL,
+    expiration_date timestamp NOT NULL,
+    revoked_at      timestamp NOT NULL,
+    CONSTRAINT revoked_access_token_pkey PRIMARY KEY (token_id)
+);
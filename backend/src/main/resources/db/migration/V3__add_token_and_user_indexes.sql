@@ -0,0 +1,25 @@
+-- findUserByUsername / findUserByEmail, duplicates have to be resolved by hand before this migration can run
+CREATE UNIQUE INDEX IF NOT EXISTS users_username_key ON users (username);
+CREATE UNIQUE INDEX IF NOT EXISTS users_email_key ON users (email);
+
+-- findByToken / findByTokenAndDeviceId use the leading column, findByUserId / findByUserAndDeviceId the second index,
+-- expired tokens are removed by expiration date
+CREATE INDEX IF NOT EXISTS access_token_token_digest_device_id_idx ON access_token (token_digest, device_id);
+CREATE INDEX IF NOT EXISTS access_token_user_id_device_id_idx ON access_token (user_id, device_id);
+CREATE INDEX IF NOT EXISTS access_token_expiration_date_idx ON access_token (expiration_date);
+
+CREATE INDEX IF NOT EXISTS refresh_token_token_digest_device_id_idx ON refresh_token (token_digest, device_id);
+CREATE INDEX IF NOT EXISTS refresh_token_user_id_device_id_idx ON refresh_token (user_id, device_id);
+CREATE INDEX IF NOT EXISTS refresh_token_expiration_date_idx ON refresh_token (expiration_date);
+
+CREATE INDEX IF NOT EXISTS email_confirm_token_token_digest_idx ON email_confirm_token (token_digest);
+CREATE INDEX IF NOT EXISTS email_confirm_token_user_id_idx ON email_confirm_token (user_id);
+CREATE INDEX IF NOT EXISTS email_confirm_token_expiration_date_idx ON email_confirm_token (expiration_date);
+
+CREATE INDEX IF NOT EXISTS password_reset_token_token_digest_idx ON password_reset_token (token_digest);
+CREATE INDEX IF NOT EXISTS password_reset_token_user_id_idx ON password_reset_token (user_id);
+CREATE INDEX IF NOT EXISTS password_reset_token_expiration_date_idx ON password_reset_token (expiration_date);
+
+-- startup load and periodic sync of the revocation filter
+CREATE INDEX IF NOT EXISTS revoked_access_token_expiration_date_idx ON revoked_access_token (expiration_date);
+CREATE INDEX IF NOT EXISTS revoked_access_token_revoked_at_idx ON revoked_access_token (revoked_at);
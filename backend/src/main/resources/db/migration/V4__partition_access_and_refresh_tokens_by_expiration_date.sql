@@ -0,0 +1,78 @@
+-- Access and refresh tokens are range partitioned by expiration date into daily partitions named <table>_pYYYYMMDD,
+-- so that expired tokens are removed by dropping whole partitions. Future partitions are created and expired ones
+-- dropped by TokenPartitionMaintenanceService, tokens outside the created range end up in <table>_default.
+-- Requires postgres 11 (default partitions, primary and foreign keys on partitioned tables).
+-- Tokens that expired before today are not carried over.
+
+CREATE TABLE access_token_partitioned (
+    id              uuid      NOT NULL,
+    token_digest    bytea     NOT NULL,
+    user_id         uuid      NOT NULL,
+    expiration_date timestamp NOT NULL,
+    token_type      integer,
+    device_id       uuid,
+    token_id        uuid
+) PARTITION BY RANGE (expiration_date);
+
+CREATE TABLE refresh_token_partitioned (
+    id              uuid      NOT NULL,
+    token_digest    bytea     NOT NULL,
+    user_id         uuid      NOT NULL,
+    expiration_date timestamp NOT NULL,
+    token_type      integer,
+    device_id       uuid
+) PARTITION BY RANGE (expiration_date);
+
+CREATE TABLE access_token_default PARTITION OF access_token_partitioned DEFAULT;
+CREATE TABLE refresh_token_default PARTITION OF refresh_token_partitioned DEFAULT;
+
+DO $$
+DECLARE
+    partition_day date;
+    last_access_token_day date;
+    last_refresh_token_day date;
+BEGIN
+    SELECT greatest(current_date + 1, max(expiration_date)::date) INTO last_access_token_day FROM access_token;
+    SELECT greatest(current_date + 31, max(expiration_date)::date) INTO last_refresh_token_day FROM refresh_token;
+
+    FOR partition_day IN SELECT generate_series(current_date, last_access_token_day, interval '1 day')::date LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF access_token_partitioned FOR VALUES FROM (%L) TO (%L)',
+                       'access_token_p' || to_char(partition_day, 'YYYYMMDD'), partition_day, partition_day + 1);
+    END LOOP;
+
+    FOR partition_day IN SELECT generate_series(current_date, last_refresh_token_day, interval '1 day')::date LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF refresh_token_partitioned FOR VALUES FROM (%L) TO (%L)',
+                       'refresh_token_p' || to_char(partition_day, 'YYYYMMDD'), partition_day, partition_day + 1);
+    END LOOP;
+END
+$$;
+
+INSERT INTO access_token_partitioned (id, token_digest, user_id, expiration_date, token_type, device_id, token_id)
+SELECT id, token_digest, user_id, expiration_date, token_type, device_id, token_id
+FROM access_token
+WHERE expiration_date >= current_date;
+
+INSERT INTO refresh_token_partitioned (id, token_digest, user_id, expiration_date, token_type, device_id)
+SELECT id, token_digest, user_id, expiration_date, token_type, device_id
+FROM refresh_token
+WHERE expiration_date >= current_date;
+
+DROP TABLE access_token;
+DROP TABLE refresh_token;
+
+ALTER TABLE access_token_partitioned RENAME TO access_token;
+ALTER TABLE refresh_token_partitioned RENAME TO refresh_token;
+
+-- the partition key has to be part of the primary key, ids stay unique as they are random uuids
+ALTER TABLE access_token ADD CONSTRAINT access_token_pkey PRIMARY KEY (id, expiration_date);
+ALTER TABLE refresh_token ADD CONSTRAINT refresh_token_pkey PRIMARY KEY (id, expiration_date);
+
+ALTER TABLE access_token ADD CONSTRAINT access_token_user_id_fkey FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE;
+ALTER TABLE refresh_token ADD CONSTRAINT refresh_token_user_id_fkey FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE;
+
+-- created on every partition, the expiration date indexes are replaced by partition pruning
+CREATE INDEX access_token_token_digest_device_id_idx ON access_token (token_digest, device_id);
+CREATE INDEX access_token_user_id_device_id_idx ON access_token (user_id, device_id);
+
+CREATE INDEX refresh_token_token_digest_device_id_idx ON refresh_token (token_digest, device_id);
+CREATE INDEX refresh_token_user_id_device_id_idx ON refresh_token (user_id, device_id);
@@ -0,0 +1,43 @@
+-- thumbnails are stored as binary outside the users row, so user and token lookups no longer read the image
+CREATE TABLE user_thumbnail (
+    user_id      uuid         NOT NULL,
+    content_type varchar(255) NOT NULL,
+    image        bytea        NOT NULL,
+    version      varchar(32)  NOT NULL,
+    CONSTRAINT user_thumbnail_pkey PRIMARY KEY (user_id),
+    CONSTRAINT user_thumbnail_user_id_fkey FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE
+);
+
+ALTER TABLE users ADD COLUMN thumbnail_version varchar(32);
+
+-- the base64 column accepted both plain base64 and data urls, thumbnails that do not decode are dropped
+DO $$
+DECLARE
+    user_row record;
+    decoded_image bytea;
+    image_content_type varchar(255);
+BEGIN
+    FOR user_row IN SELECT id, thumbnail_base64 FROM users WHERE thumbnail_base64 IS NOT NULL AND thumbnail_base64 <> '' LOOP
+        BEGIN
+            decoded_image := decode(regexp_replace(user_row.thumbnail_base64, '^data:[^,]*,', ''), 'base64');
+            image_content_type := substring(user_row.thumbnail_base64 from '^data:([^;,]+)');
+
+            -- thumbnails are served from the backend origin, only raster image types are kept
+            IF image_content_type IS NULL OR image_content_type !~ '^image/' OR image_content_type ~ 'svg' THEN
+                image_content_type := 'application/octet-stream';
+            END IF;
+
+            INSERT INTO user_thumbnail (user_id, content_type, image, version)
+            VALUES (user_row.id,
+                    image_content_type,
+                    decoded_image,
+                    md5(decoded_image));
+
+            UPDATE users SET thumbnail_version = md5(decoded_image) WHERE id = user_row.id;
+        EXCEPTION WHEN invalid_parameter_value THEN
+            RAISE NOTICE 'Skipping thumbnail of user % that is not valid base64', user_row.id;
+        END;
+    END LOOP;
+END $$;
+
+ALTER TABLE users DROP COLUMN thumbnail_base64;
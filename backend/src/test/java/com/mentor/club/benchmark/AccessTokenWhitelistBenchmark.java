@@ -0,0 +1,130 @@
+package com.mentor.club.benchmark;
+
+import com.mentor.club.model.authentication.token.TokenDigest;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.*;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of the access token whitelist check for a user with 1, 10 and 1000 sessions: loading all tokens of the
+ * user and comparing digests versus a single exists query. Needs a postgres configured through the same environment
+ * variables as the service (POSTGRES_URL, POSTGRES_DB_NAME, POSTGRES_USER_NAME and optionally
+ * SPRING_DATASOURCE_PASSWORD). Works on a scratch table.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class AccessTokenWhitelistBenchmark {
+    private static final String TABLE = "access_token_whitelist_benchmark";
+
+    /**
+     * Tokens of other users, so that the indexes are not trivially small
+     */
+    private static final int OTHER_USERS_TOKEN_COUNT = 10000;
+
+    @Param({"1", "10", "1000"})
+    private int sessionsPerUser;
+
+    private Connection connection;
+
+    private PreparedStatement findByUserIdStatement;
+
+    private PreparedStatement existsStatement;
+
+    private UUID userId;
+
+    private byte[] tokenDigest;
+
+    @Setup
+    public void setup() throws SQLException {
+        connection = DriverManager.getConnection(
+                "jdbc:postgresql://" + System.getenv("POSTGRES_URL") + "/" + System.getenv("POSTGRES_DB_NAME"),
+                System.getenv("POSTGRES_USER_NAME"),
+                System.getenv("SPRING_DATASOURCE_PASSWORD"));
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS " + TABLE);
+            statement.execute("CREATE TABLE " + TABLE + " (" +
+                    "id uuid PRIMARY KEY, token_digest bytea NOT NULL, user_id uuid NOT NULL, expiration_date timestamp NOT NULL, " +
+                    "token_type integer, device_id uuid, token_id uuid)");
+            statement.execute("CREATE INDEX ON " + TABLE + " (token_digest, device_id)");
+            statement.execute("CREATE INDEX ON " + TABLE + " (user_id, device_id)");
+        }
+
+        userId = UUID.randomUUID();
+
+        try (PreparedStatement insertStatement = connection.prepareStatement("INSERT INTO " + TABLE +
+                " (id, token_digest, user_id, expiration_date, token_type, device_id, token_id) VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+            for (int i = 0; i < sessionsPerUser + OTHER_USERS_TOKEN_COUNT; i++) {
+                byte[] digest = TokenDigest.of(UUID.randomUUID().toString());
+
+                insertStatement.setObject(1, UUID.randomUUID());
+                insertStatement.setBytes(2, digest);
+                insertStatement.setObject(3, i < sessionsPerUser ? userId : UUID.randomUUID());
+                insertStatement.setTimestamp(4, Timestamp.from(Instant.now().plusSeconds(600)));
+                insertStatement.setInt(5, 3);
+                insertStatement.setObject(6, UUID.randomUUID());
+                insertStatement.setObject(7, UUID.randomUUID());
+                insertStatement.addBatch();
+
+                // the checked token is the last session of the user, the worst case for the list scan
+                if (i == sessionsPerUser - 1) {
+                    tokenDigest = digest;
+                }
+            }
+
+            insertStatement.executeBatch();
+        }
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ANALYZE " + TABLE);
+        }
+
+        findByUserIdStatement = connection.prepareStatement("SELECT id, token_digest, user_id, expiration_date, token_type, device_id, token_id FROM " +
+                TABLE + " WHERE user_id = ?");
+        existsStatement = connection.prepareStatement("SELECT id FROM " + TABLE +
+                " WHERE user_id = ? AND token_digest = ? AND expiration_date > ? LIMIT 1");
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS " + TABLE);
+        }
+
+        connection.close();
+    }
+
+    @Benchmark
+    public boolean findAllTokensOfUser() throws SQLException {
+        findByUserIdStatement.setObject(1, userId);
+
+        boolean isTokenPresent = false;
+
+        try (ResultSet resultSet = findByUserIdStatement.executeQuery()) {
+            while (resultSet.next()) {
+                isTokenPresent |= Arrays.equals(resultSet.getBytes("token_digest"), tokenDigest);
+            }
+        }
+
+        return isTokenPresent;
+    }
+
+    @Benchmark
+    public boolean existsUnexpiredToken() throws SQLException {
+        existsStatement.setObject(1, userId);
+        existsStatement.setBytes(2, tokenDigest);
+        existsStatement.setTimestamp(3, Timestamp.from(Instant.now()));
+
+        try (ResultSet resultSet = existsStatement.executeQuery()) {
+            return resultSet.next();
+        }
+    }
+}
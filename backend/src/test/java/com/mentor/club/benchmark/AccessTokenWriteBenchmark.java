@@ -0,0 +1,73 @@
+package com.mentor.club.benchmark;
+
+import com.mentor.club.model.authentication.token.TokenDigest;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.*;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Insert throughput of access token rows into a logged and an unlogged table, one commit per row like a login.
+ * Needs a postgres configured through the same environment variables as the service (POSTGRES_URL,
+ * POSTGRES_DB_NAME, POSTGRES_USER_NAME and optionally SPRING_DATASOURCE_PASSWORD). Works on a scratch table.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class AccessTokenWriteBenchmark {
+    private static final String TABLE = "access_token_write_benchmark";
+
+    @Param({"LOGGED", "UNLOGGED"})
+    private String persistence;
+
+    private Connection connection;
+
+    private PreparedStatement insertStatement;
+
+    @Setup
+    public void setup() throws SQLException {
+        connection = DriverManager.getConnection(
+                "jdbc:postgresql://" + System.getenv("POSTGRES_URL") + "/" + System.getenv("POSTGRES_DB_NAME"),
+                System.getenv("POSTGRES_USER_NAME"),
+                System.getenv("SPRING_DATASOURCE_PASSWORD"));
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS " + TABLE);
+            statement.execute("CREATE " + ("UNLOGGED".equals(persistence) ? "UNLOGGED " : "") + "TABLE " + TABLE + " (" +
+                    "id uuid PRIMARY KEY, token_digest bytea NOT NULL, user_id uuid NOT NULL, expiration_date timestamp NOT NULL, " +
+                    "token_type integer, device_id uuid, token_id uuid)");
+            statement.execute("CREATE INDEX ON " + TABLE + " (token_digest, device_id)");
+            statement.execute("CREATE INDEX ON " + TABLE + " (user_id, device_id)");
+        }
+
+        insertStatement = connection.prepareStatement("INSERT INTO " + TABLE +
+                " (id, token_digest, user_id, expiration_date, token_type, device_id, token_id) VALUES (?, ?, ?, ?, ?, ?, ?)");
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS " + TABLE);
+        }
+
+        connection.close();
+    }
+
+    @Benchmark
+    public int insertAccessToken() throws SQLException {
+        insertStatement.setObject(1, UUID.randomUUID());
+        insertStatement.setBytes(2, TokenDigest.of(UUID.randomUUID().toString()));
+        insertStatement.setObject(3, UUID.randomUUID());
+        insertStatement.setTimestamp(4, Timestamp.from(Instant.now().plusSeconds(600)));
+        insertStatement.setInt(5, 3);
+        insertStatement.setObject(6, UUID.randomUUID());
+        insertStatement.setObject(7, UUID.randomUUID());
+
+        return insertStatement.executeUpdate();
+    }
+}
@@ -0,0 +1,50 @@
+package com.mentor.club.benchmark;
+
+import org.mindrot.jbcrypt.BCrypt;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Login throughput of the password checks: the former two-pass login, which looked up the user and verified the
+ * password in the unauthorized and again in the authorized flow, versus the single pass. The user lookup is an in
+ * memory map, so the difference is the BCrypt verification alone.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(4)
+@Fork(1)
+public class LoginBenchmark {
+    private static final String USERNAME = "test-username";
+    private static final String PASSWORD = "test-password";
+
+    /**
+     * 10 is the cost of BCrypt.gensalt(), used for all stored passwords
+     */
+    @Param({"10"})
+    private int bcryptCost;
+
+    private final Map<String, String> hashedPasswordsByUsername = new HashMap<>();
+
+    @Setup
+    public void setup() {
+        hashedPasswordsByUsername.put(USERNAME, BCrypt.hashpw(PASSWORD, BCrypt.gensalt(bcryptCost)));
+    }
+
+    @Benchmark
+    public boolean twoPassLogin() {
+        boolean isAuthorized = BCrypt.checkpw(PASSWORD, hashedPasswordsByUsername.get(USERNAME));
+
+        return isAuthorized && BCrypt.checkpw(PASSWORD, hashedPasswordsByUsername.get(USERNAME));
+    }
+
+    @Benchmark
+    public boolean singlePassLogin() {
+        return BCrypt.checkpw(PASSWORD, hashedPasswordsByUsername.get(USERNAME));
+    }
+}
@@ -0,0 +1,63 @@
+package com.mentor.club.benchmark;
+
+import com.mentor.club.model.authentication.token.factories.SecureRandomPool;
+import com.mentor.club.service.password.Argon2idPasswordEncoder;
+import com.mentor.club.service.password.BCryptPasswordEncoder;
+import com.mentor.club.service.password.IPasswordEncoder;
+import com.mentor.club.service.password.ScryptPasswordEncoder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one password verification per algorithm with the defaults of application.yml. Run it with the gc profiler
+ * (the default of the benchmark profile) to get the bytes allocated per verification next to its time.
+ * The backend container is limited to 0.5 cpu and 300M, so a verification of t ms takes the cpu for 2 * t ms of wall
+ * time on one password hashing thread, and every concurrent argon2id or scrypt verification holds its memory
+ * (19 MiB and 32 MiB) on top of the heap the service needs anyway.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(1)
+@Fork(value = 1, jvmArgs = {"-Xmx300m", "-XX:ActiveProcessorCount=1"})
+public class PasswordEncoderBenchmark {
+    private static final String PASSWORD = "test-password";
+
+    @Param({"bcrypt", "argon2id", "scrypt"})
+    private String algorithm;
+
+    private IPasswordEncoder passwordEncoder;
+
+    private String hashedPassword;
+
+    @Setup
+    public void setup() {
+        SecureRandomPool secureRandomPool = new SecureRandomPool();
+
+        switch (algorithm) {
+            case BCryptPasswordEncoder.ALGORITHM:
+                // cost 10 until the calibration runs
+                passwordEncoder = new BCryptPasswordEncoder(new SimpleMeterRegistry());
+                break;
+            case Argon2idPasswordEncoder.ALGORITHM:
+                passwordEncoder = new Argon2idPasswordEncoder(secureRandomPool, 19456, 2, 1);
+                break;
+            case ScryptPasswordEncoder.ALGORITHM:
+                passwordEncoder = new ScryptPasswordEncoder(secureRandomPool, 15, 8, 1);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown algorithm " + algorithm);
+        }
+
+        hashedPassword = passwordEncoder.encode(PASSWORD);
+    }
+
+    @Benchmark
+    public boolean verify() {
+        return passwordEncoder.matches(PASSWORD, hashedPassword);
+    }
+}
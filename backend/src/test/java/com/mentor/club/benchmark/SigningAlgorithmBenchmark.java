@@ -0,0 +1,65 @@
+package com.mentor.club.benchmark;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.mentor.club.model.authentication.key.SigningAlgorithm;
+import org.openjdk.jmh.annotations.*;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.spec.ECGenParameterSpec;
+import java.time.Instant;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sign and verify throughput of an access token per supported signing algorithm
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SigningAlgorithmBenchmark {
+    @Param({"RS256", "ES256"})
+    private SigningAlgorithm signingAlgorithm;
+
+    private Algorithm algorithm;
+
+    private DecodedJWT decodedJWT;
+
+    @Setup
+    public void setup() throws Exception {
+        KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance(signingAlgorithm.getKeyFactoryAlgorithm());
+
+        if (signingAlgorithm == SigningAlgorithm.ES256) {
+            keyPairGenerator.initialize(new ECGenParameterSpec("secp256r1"));
+        } else {
+            keyPairGenerator.initialize(2048);
+        }
+
+        KeyPair keyPair = keyPairGenerator.generateKeyPair();
+
+        algorithm = signingAlgorithm.createAlgorithm(keyPair.getPublic(), keyPair.getPrivate());
+        decodedJWT = JWT.decode(sign());
+    }
+
+    @Benchmark
+    public String sign() {
+        return JWT.create()
+                .withIssuer("user microservice")
+                .withExpiresAt(Date.from(Instant.now().plusSeconds(600)))
+                .withClaim("username", "benchmark-user")
+                .withClaim("group", "[user]")
+                .sign(algorithm);
+    }
+
+    @Benchmark
+    public DecodedJWT verify() {
+        algorithm.verify(decodedJWT);
+
+        return decodedJWT;
+    }
+}
@@ -0,0 +1,168 @@
+package com.mentor.club.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.*;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of concurrent sign-ups: looking up username and email before inserting the user versus inserting right
+ * away and mapping the unique violation. Every sign-up picks a username out of a small pool, so that concurrent
+ * sign-ups collide. After each iteration the scratch table is checked for duplicate usernames and emails, duplicates
+ * the check-then-act race let through are logged as a warning. Needs a postgres configured through the same
+ * environment variables as the service (POSTGRES_URL, POSTGRES_DB_NAME, POSTGRES_USER_NAME and optionally
+ * SPRING_DATASOURCE_PASSWORD).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(8)
+@Fork(1)
+public class UserRegistrationBenchmark {
+    private static final Logger LOGGER = LoggerFactory.getLogger(UserRegistrationBenchmark.class);
+
+    private static final String TABLE = "user_registration_benchmark";
+
+    private static final String UNIQUE_VIOLATION_SQL_STATE = "23505";
+
+    /**
+     * Without the unique indexes the check-then-act race is not caught by postgres and shows up as duplicates
+     */
+    @Param({"true", "false"})
+    private boolean withUniqueIndexes;
+
+    /**
+     * Distinct usernames the sign-ups pick from
+     */
+    @Param({"1000"})
+    private int usernamePoolSize;
+
+    @Setup(Level.Iteration)
+    public void setup() throws SQLException {
+        try (Connection connection = openConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS " + TABLE);
+            statement.execute("CREATE TABLE " + TABLE + " (" +
+                    "id uuid PRIMARY KEY, name varchar(255), username varchar(255), email varchar(255), " +
+                    "hashed_password varchar(255), thumbnail_version varchar(32), status integer)");
+
+            if (withUniqueIndexes) {
+                statement.execute("CREATE UNIQUE INDEX ON " + TABLE + " (username)");
+                statement.execute("CREATE UNIQUE INDEX ON " + TABLE + " (email)");
+            } else {
+                statement.execute("CREATE INDEX ON " + TABLE + " (username)");
+                statement.execute("CREATE INDEX ON " + TABLE + " (email)");
+            }
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void checkForDuplicates() throws SQLException {
+        try (Connection connection = openConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(
+                     "SELECT (SELECT count(*) - count(DISTINCT username) FROM " + TABLE + ") + " +
+                     "(SELECT count(*) - count(DISTINCT email) FROM " + TABLE + ")")) {
+            resultSet.next();
+
+            long duplicateCount = resultSet.getLong(1);
+
+            if (duplicateCount > 0) {
+                LOGGER.warn("Found " + duplicateCount + " duplicate usernames or emails in " + TABLE + " with withUniqueIndexes=" + withUniqueIndexes + "!");
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadConnection {
+        private Connection connection;
+
+        private PreparedStatement findByUsernameStatement;
+
+        private PreparedStatement findByEmailStatement;
+
+        private PreparedStatement insertStatement;
+
+        @Setup(Level.Iteration)
+        public void setup() throws SQLException {
+            connection = openConnection();
+            findByUsernameStatement = connection.prepareStatement("SELECT id FROM " + TABLE + " WHERE username = ?");
+            findByEmailStatement = connection.prepareStatement("SELECT id FROM " + TABLE + " WHERE email = ?");
+            insertStatement = connection.prepareStatement("INSERT INTO " + TABLE +
+                    " (id, name, username, email, hashed_password, status) VALUES (?, ?, ?, ?, ?, 0)");
+        }
+
+        @TearDown(Level.Iteration)
+        public void tearDown() throws SQLException {
+            connection.close();
+        }
+    }
+
+    /**
+     * The former registration: two lookups, then the insert
+     */
+    @Benchmark
+    public boolean checkThenInsert(ThreadConnection threadConnection) throws SQLException {
+        String username = nextUsername();
+
+        if (exists(threadConnection.findByEmailStatement, username + "@example.com")) {
+            return false;
+        }
+
+        if (exists(threadConnection.findByUsernameStatement, username)) {
+            return false;
+        }
+
+        return insert(threadConnection, username);
+    }
+
+    /**
+     * The insert alone, a taken username or email is reported by the unique index
+     */
+    @Benchmark
+    public boolean constrainedInsert(ThreadConnection threadConnection) throws SQLException {
+        return insert(threadConnection, nextUsername());
+    }
+
+    private boolean insert(ThreadConnection threadConnection, String username) throws SQLException {
+        threadConnection.insertStatement.setObject(1, UUID.randomUUID());
+        threadConnection.insertStatement.setString(2, username);
+        threadConnection.insertStatement.setString(3, username);
+        threadConnection.insertStatement.setString(4, username + "@example.com");
+        threadConnection.insertStatement.setString(5, "hashed-password");
+
+        try {
+            return threadConnection.insertStatement.executeUpdate() == 1;
+        } catch (SQLException exception) {
+            if (UNIQUE_VIOLATION_SQL_STATE.equals(exception.getSQLState())) {
+                return false;
+            }
+
+            throw exception;
+        }
+    }
+
+    private static boolean exists(PreparedStatement statement, String value) throws SQLException {
+        statement.setString(1, value);
+
+        try (ResultSet resultSet = statement.executeQuery()) {
+            return resultSet.next();
+        }
+    }
+
+    private String nextUsername() {
+        return "user-" + ThreadLocalRandom.current().nextInt(usernamePoolSize);
+    }
+
+    private static Connection openConnection() throws SQLException {
+        return DriverManager.getConnection(
+                "jdbc:postgresql://" + System.getenv("POSTGRES_URL") + "/" + System.getenv("POSTGRES_DB_NAME"),
+                System.getenv("POSTGRES_USER_NAME"),
+                System.getenv("SPRING_DATASOURCE_PASSWORD"));
+    }
+}
@@ -52,8 +52,10 @@ public class JwtControllerTest {
 
     @Test
     public void test_getPublicKey_callsGetPublicKeyOfJwtService() {
-        jwtController.getPublicKey();
+        Optional<String> ifNoneMatch = Optional.of("\"test-entity-tag\"");
 
-        verify(jwtService, times(1)).getPublicKey();
+        jwtController.getPublicKey(ifNoneMatch);
+
+        verify(jwtService, times(1)).getPublicKey(ifNoneMatch);
     }
 }
@@ -0,0 +1,37 @@
+package com.mentor.club.controller;
+
+import com.mentor.club.exception.PasswordHashingRejectedException;
+import com.mentor.club.exception.RateLimitedException;
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.Assert.assertEquals;
+
+public class RejectedRequestExceptionHandlerTest {
+    @Test
+    public void handlePasswordHashingRejected_returnsServiceUnavailableWithRetryAfter() {
+        RejectedRequestExceptionHandler rejectedRequestExceptionHandler = new RejectedRequestExceptionHandler();
+
+        ReflectionTestUtils.setField(rejectedRequestExceptionHandler, "passwordHashingRetryAfterInSeconds", 2L);
+
+        ResponseEntity<String> response = rejectedRequestExceptionHandler.handlePasswordHashingRejected(
+                new PasswordHashingRejectedException("password hashing queue is full"));
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertEquals("2", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+    }
+
+    @Test
+    public void handleRateLimited_returnsTooManyRequestsWithRetryAfterOfTheBucket() {
+        RejectedRequestExceptionHandler rejectedRequestExceptionHandler = new RejectedRequestExceptionHandler();
+
+        ResponseEntity<String> response = rejectedRequestExceptionHandler.handleRateLimited(
+                new RateLimitedException("rate limit authenticate-username exceeded", 42));
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, response.getStatusCode());
+        assertEquals("42", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+    }
+}
@@ -1,11 +1,14 @@
 package com.mentor.club.controller;
 
+import com.mentor.club.exception.RateLimitedException;
 import com.mentor.club.model.authentication.AuthenticationRequest;
 import com.mentor.club.model.password.ChangeForgottenPasswordRequest;
 import com.mentor.club.model.password.ChangePasswordRequest;
 import com.mentor.club.model.user.NewUser;
 import com.mentor.club.service.PasswordService;
+import com.mentor.club.service.RateLimiterService;
 import com.mentor.club.service.UserService;
+import com.mentor.club.service.UserThumbnailService;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -13,12 +16,15 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.mock.web.MockHttpServletResponse;
 
+import java.util.Optional;
 import java.util.UUID;
 
-import static org.mockito.Mockito.times;
-import static org.mockito.Mockito.verify;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
 
 @RunWith(MockitoJUnitRunner.class)
 public class UserControllerTest {
@@ -31,6 +37,12 @@ public class UserControllerTest {
     @Mock
     private PasswordService passwordService;
 
+    @Mock
+    private UserThumbnailService userThumbnailService;
+
+    @Mock
+    private RateLimiterService rateLimiterService;
+
     @Before
     public void init() {
         MockitoAnnotations.initMocks(this);
@@ -41,11 +53,35 @@ public class UserControllerTest {
         AuthenticationRequest authenticationRequest = new AuthenticationRequest();
         MockHttpServletResponse httpServletResponse = new MockHttpServletResponse();
 
-        userController.authenticate(authenticationRequest, httpServletResponse);
+        authenticationRequest.setUsername("test-username");
+
+        userController.authenticate(authenticationRequest, new MockHttpServletRequest(), httpServletResponse);
 
+        verify(rateLimiterService, times(1)).acquire("authenticate-client", "127.0.0.1");
+        verify(rateLimiterService, times(1)).acquire("authenticate-username", "test-username");
         verify(userService, times(1)).authenticate(authenticationRequest, httpServletResponse);
     }
 
+    @Test
+    public void test_authenticate_ifRateLimited_doesNotCallUserService() {
+        AuthenticationRequest authenticationRequest = new AuthenticationRequest();
+
+        authenticationRequest.setUsername("test-username");
+
+        doThrow(new RateLimitedException("rate limit authenticate-username exceeded", 60))
+                .when(rateLimiterService).acquire("authenticate-username", "test-username");
+
+        try {
+            userController.authenticate(authenticationRequest, new MockHttpServletRequest(), new MockHttpServletResponse());
+
+            fail();
+        } catch (RateLimitedException exception) {
+            // answered with 429 by RejectedRequestExceptionHandler
+        }
+
+        verify(userService, never()).authenticate(any(), any());
+    }
+
     @Test
     public void test_createNewUser_callsCreateNewUserOfUserService() {
         NewUser newUser = new NewUser();
@@ -70,8 +106,10 @@ public class UserControllerTest {
     public void test_generateResetForgottenPassword_callsGenerateResetForgottenPasswordOfPasswordService() {
         String userEmail = "test-user-email";
 
-        userController.generateResetForgottenPasswordEmail(userEmail);
+        userController.generateResetForgottenPasswordEmail(userEmail, new MockHttpServletRequest());
 
+        verify(rateLimiterService, times(1)).acquire("reset-forgotten-password-client", "127.0.0.1");
+        verify(rateLimiterService, times(1)).acquire("reset-forgotten-password-email", userEmail);
         verify(passwordService, times(1)).generateResetForgottenPasswordEmail(userEmail);
     }
 
@@ -79,8 +117,9 @@ public class UserControllerTest {
     public void test_changeForgottenPassword_callsChangeForgottenPasswordOfPasswordService() {
         ChangeForgottenPasswordRequest changeForgottenPasswordRequest = new ChangeForgottenPasswordRequest();
 
-        userController.changeForgottenPassword(changeForgottenPasswordRequest);
+        userController.changeForgottenPassword(changeForgottenPasswordRequest, new MockHttpServletRequest());
 
+        verify(rateLimiterService, times(1)).acquire("change-forgotten-password-client", "127.0.0.1");
         verify(passwordService, times(1)).changeForgottenPassword(changeForgottenPasswordRequest);
     }
 
@@ -89,8 +128,9 @@ public class UserControllerTest {
         ChangePasswordRequest changePasswordRequest = new ChangePasswordRequest();
         String authorization = "test-authorization";
 
-        userController.changePassword(changePasswordRequest, authorization);
+        userController.changePassword(changePasswordRequest, authorization, new MockHttpServletRequest());
 
+        verify(rateLimiterService, times(1)).acquire("change-password-client", "127.0.0.1");
         verify(passwordService, times(1)).changePassword(changePasswordRequest, authorization);
     }
 
@@ -103,4 +143,14 @@ public class UserControllerTest {
 
         verify(userService, times(1)).logout(authorization, deviceId);
     }
+
+    @Test
+    public void test_getThumbnail_callsGetThumbnailOfUserThumbnailService() {
+        UUID userId = UUID.randomUUID();
+        Optional<String> ifNoneMatch = Optional.empty();
+
+        userController.getThumbnail(userId, ifNoneMatch);
+
+        verify(userThumbnailService, times(1)).getThumbnail(userId, ifNoneMatch);
+    }
 }
@@ -0,0 +1,36 @@
+package com.mentor.club.model.authentication.token.factories;
+
+import com.mentor.club.model.authentication.token.concretes.RefreshToken;
+import com.mentor.club.model.authentication.token.enums.JwtTokenType;
+import org.junit.Test;
+
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+public class OpaqueTokenGeneratorTest {
+    private OpaqueTokenGenerator opaqueTokenGenerator = new OpaqueTokenGenerator(new SecureRandomPool());
+
+    @Test
+    public void generateToken_returnsUnpaddedBase64UrlOf32Bytes() {
+        String token = opaqueTokenGenerator.generateToken(new RefreshToken(JwtTokenType.REFRESH_TOKEN, UUID.randomUUID()), 60L);
+
+        assertEquals(43, token.length());
+        assertTrue(token.matches("[A-Za-z0-9_-]+"));
+        assertEquals(32, Base64.getUrlDecoder().decode(token).length);
+    }
+
+    @Test
+    public void generateToken_returnsDifferentTokenOnEveryCall() {
+        Set<String> tokens = new HashSet<>();
+
+        for (int i = 0; i < 10000; i++) {
+            tokens.add(opaqueTokenGenerator.generateToken(new RefreshToken(JwtTokenType.REFRESH_TOKEN, UUID.randomUUID()), 60L));
+        }
+
+        assertEquals(10000, tokens.size());
+    }
+}
@@ -0,0 +1,65 @@
+package com.mentor.club.model.authentication.token.factories;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
+
+public class SecureRandomPoolTest {
+    private static final int THREADS = 8;
+    private static final int TOKENS_PER_THREAD = 5000;
+
+    @Test
+    public void get_returnsInstancesOfThePool() {
+        SecureRandomPool secureRandomPool = new SecureRandomPool();
+        Set<Object> secureRandoms = ConcurrentHashMap.newKeySet();
+
+        for (int i = 0; i < 1000; i++) {
+            secureRandoms.add(secureRandomPool.get());
+        }
+
+        assertTrue(secureRandoms.size() > 1);
+        assertTrue(secureRandoms.size() <= 4);
+    }
+
+    @Test
+    public void get_ifUsedConcurrently_neverRepeatsRandomBytes() throws Exception {
+        SecureRandomPool secureRandomPool = new SecureRandomPool();
+        Set<String> tokens = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+
+        try {
+            for (int thread = 0; thread < THREADS; thread++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+
+                    for (int i = 0; i < TOKENS_PER_THREAD; i++) {
+                        byte[] randomBytes = new byte[16];
+
+                        secureRandomPool.get().nextBytes(randomBytes);
+                        tokens.add(Base64.getEncoder().encodeToString(randomBytes));
+                    }
+
+                    return null;
+                }));
+            }
+
+            start.countDown();
+
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(THREADS * TOKENS_PER_THREAD, tokens.size());
+    }
+}
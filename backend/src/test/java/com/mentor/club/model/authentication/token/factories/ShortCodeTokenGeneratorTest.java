@@ -0,0 +1,43 @@
+package com.mentor.club.model.authentication.token.factories;
+
+import com.mentor.club.model.authentication.token.concretes.EmailConfirmToken;
+import com.mentor.club.model.authentication.token.enums.JwtTokenType;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class ShortCodeTokenGeneratorTest {
+    private ShortCodeTokenGenerator shortCodeTokenGenerator = new ShortCodeTokenGenerator(new SecureRandomPool());
+
+    @Test
+    public void generateToken_returnsSixUpperCaseAlphanumericCharacters() {
+        for (int i = 0; i < 1000; i++) {
+            String code = shortCodeTokenGenerator.generateToken(new EmailConfirmToken(JwtTokenType.EMAIL_CONFIRM_TOKEN), 60L);
+
+            assertTrue(code, code.matches("[A-Z0-9]{6}"));
+        }
+    }
+
+    @Test
+    public void generateToken_usesTheWholeAlphabetAndRarelyRepeats() {
+        Set<String> codes = new HashSet<>();
+        Set<Character> characters = new HashSet<>();
+
+        for (int i = 0; i < 10000; i++) {
+            String code = shortCodeTokenGenerator.generateToken(new EmailConfirmToken(JwtTokenType.EMAIL_CONFIRM_TOKEN), 60L);
+
+            codes.add(code);
+
+            for (char character : code.toCharArray()) {
+                characters.add(character);
+            }
+        }
+
+        assertEquals(36, characters.size());
+        // 36^6 possible codes, 10000 codes collide about 23 times on average
+        assertTrue(codes.size() > 9900);
+    }
+}
@@ -0,0 +1,140 @@
+package com.mentor.club.service;
+
+import com.mentor.club.model.authentication.revocation.RevokedAccessToken;
+import com.mentor.club.model.authentication.token.concretes.AccessToken;
+import com.mentor.club.model.authentication.token.concretes.RefreshToken;
+import com.mentor.club.model.authentication.token.enums.JwtTokenType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import static com.mentor.club.service.JwtService.DELETED_TOKENS_METRIC;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class DeviceSessionServiceTest {
+    private JdbcTemplate jdbcTemplate;
+    private PlatformTransactionManager transactionManager;
+    private RevocationFilterService revocationFilterService;
+    private SimpleMeterRegistry meterRegistry;
+
+    private DeviceSessionService deviceSessionService;
+
+    @Before
+    public void init() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        revocationFilterService = mock(RevocationFilterService.class);
+        meterRegistry = new SimpleMeterRegistry();
+        deviceSessionService = new DeviceSessionService(jdbcTemplate, transactionManager, revocationFilterService, meterRegistry);
+    }
+
+    @Test
+    public void replaceDeviceTokens_runsOneStatementInOneTransaction() throws Exception {
+        UUID deviceId = UUID.randomUUID();
+
+        mockDeletedTokens();
+
+        deviceSessionService.replaceDeviceTokens(UUID.randomUUID(), createAccessToken(deviceId), createRefreshToken(deviceId));
+
+        verify(jdbcTemplate, times(1)).query(anyString(), any(RowMapper.class), (Object[]) any());
+        verify(transactionManager, times(1)).getTransaction(any());
+        verify(transactionManager, times(1)).commit(any());
+    }
+
+    @Test
+    public void replaceDeviceTokens_ifRevocationFilterIsEnabled_revokesReplacedAccessTokens() throws Exception {
+        UUID deviceId = UUID.randomUUID();
+        UUID replacedTokenId = UUID.randomUUID();
+
+        when(revocationFilterService.isEnabled()).thenReturn(true);
+        mockDeletedTokens(new Object[]{"ACCESS_TOKEN", replacedTokenId, Timestamp.from(Instant.now().plusSeconds(600))});
+
+        deviceSessionService.replaceDeviceTokens(UUID.randomUUID(), createAccessToken(deviceId), createRefreshToken(deviceId));
+
+        ArgumentCaptor<List<RevokedAccessToken>> revokedAccessTokensCaptor = ArgumentCaptor.forClass(List.class);
+
+        verify(revocationFilterService).revoke(revokedAccessTokensCaptor.capture());
+        assertEquals(1, revokedAccessTokensCaptor.getValue().size());
+        assertEquals(replacedTokenId, revokedAccessTokensCaptor.getValue().get(0).getTokenId());
+    }
+
+    @Test
+    public void replaceDeviceTokens_ifRevocationFilterIsDisabled_doesNotRevoke() throws Exception {
+        UUID deviceId = UUID.randomUUID();
+
+        mockDeletedTokens(new Object[]{"ACCESS_TOKEN", UUID.randomUUID(), Timestamp.from(Instant.now().plusSeconds(600))});
+
+        deviceSessionService.replaceDeviceTokens(UUID.randomUUID(), createAccessToken(deviceId), createRefreshToken(deviceId));
+
+        verify(revocationFilterService, never()).revoke(anyList());
+    }
+
+    @Test
+    public void replaceDeviceTokens_countsDeletedTokensPerType() throws Exception {
+        UUID deviceId = UUID.randomUUID();
+
+        mockDeletedTokens(
+                new Object[]{"ACCESS_TOKEN", UUID.randomUUID(), Timestamp.from(Instant.now().plusSeconds(600))},
+                new Object[]{"REFRESH_TOKEN", null, null},
+                new Object[]{"REFRESH_TOKEN", null, null});
+
+        deviceSessionService.replaceDeviceTokens(UUID.randomUUID(), createAccessToken(deviceId), createRefreshToken(deviceId));
+
+        assertEquals(1.0, meterRegistry.counter(DELETED_TOKENS_METRIC, "type", "ACCESS_TOKEN", "scope", "device").count(), 0.0);
+        assertEquals(2.0, meterRegistry.counter(DELETED_TOKENS_METRIC, "type", "REFRESH_TOKEN", "scope", "device").count(), 0.0);
+    }
+
+    /**
+     * Maps the given (token_type, token_id, expiration_date) rows with the row mapper of the service
+     */
+    private void mockDeletedTokens(Object[]... rows) throws Exception {
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), (Object[]) any())).thenAnswer(invocation -> {
+            RowMapper<?> rowMapper = invocation.getArgument(1);
+            List<Object> deletedTokens = new ArrayList<>();
+
+            for (int i = 0; i < rows.length; i++) {
+                ResultSet resultSet = mock(ResultSet.class);
+
+                when(resultSet.getString("token_type")).thenReturn((String) rows[i][0]);
+                when(resultSet.getObject("token_id")).thenReturn(rows[i][1]);
+                when(resultSet.getTimestamp("expiration_date")).thenReturn((Timestamp) rows[i][2]);
+
+                deletedTokens.add(rowMapper.mapRow(resultSet, i));
+            }
+
+            return deletedTokens;
+        });
+    }
+
+    private AccessToken createAccessToken(UUID deviceId) {
+        AccessToken accessToken = new AccessToken(JwtTokenType.ACCESS_TOKEN, deviceId);
+
+        accessToken.setToken("access-token");
+        accessToken.setExpirationDate(Date.from(Instant.now().plusSeconds(600)));
+
+        return accessToken;
+    }
+
+    private RefreshToken createRefreshToken(UUID deviceId) {
+        RefreshToken refreshToken = new RefreshToken(JwtTokenType.REFRESH_TOKEN, deviceId);
+
+        refreshToken.setToken("refresh-token");
+        refreshToken.setExpirationDate(Date.from(Instant.now().plusSeconds(3600)));
+
+        return refreshToken;
+    }
+}
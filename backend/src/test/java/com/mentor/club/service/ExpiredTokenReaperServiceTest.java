@@ -0,0 +1,53 @@
+package com.mentor.club.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Timestamp;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class ExpiredTokenReaperServiceTest {
+    private JdbcTemplate jdbcTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private ExpiredTokenReaperService expiredTokenReaperService;
+
+    @Before
+    public void init() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        meterRegistry = new SimpleMeterRegistry();
+        expiredTokenReaperService = new ExpiredTokenReaperService(new DataSourceProperties(), meterRegistry);
+
+        ReflectionTestUtils.setField(expiredTokenReaperService, "enabled", true);
+        ReflectionTestUtils.setField(expiredTokenReaperService, "tables", new String[]{"access_token"});
+        ReflectionTestUtils.setField(expiredTokenReaperService, "batchSize", 2);
+        ReflectionTestUtils.setField(expiredTokenReaperService, "jdbcTemplate", jdbcTemplate);
+    }
+
+    @Test
+    public void reapTable_deletesBatchesUntilABatchComesBackShort() throws Exception {
+        when(jdbcTemplate.update(anyString(), any(Timestamp.class), anyInt())).thenReturn(2, 2, 1);
+
+        assertEquals(5, expiredTokenReaperService.reapTable("access_token"));
+        verify(jdbcTemplate, times(3)).update(contains("LIMIT ?"), any(Timestamp.class), eq(2));
+    }
+
+    @Test
+    public void reap_recordsReapedRowsAndTableSize() {
+        when(jdbcTemplate.update(anyString(), any(Timestamp.class), anyInt())).thenReturn(1);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class), eq("access_token"))).thenReturn(8192L);
+
+        expiredTokenReaperService.reap();
+
+        assertEquals(1.0, meterRegistry.get("jwt.tokens.reaped").tag("table", "access_token").counter().count(), 0);
+        assertEquals(8192.0, meterRegistry.get("jwt.token.table.size").tag("table", "access_token").gauge().value(), 0);
+    }
+}
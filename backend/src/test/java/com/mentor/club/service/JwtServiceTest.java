@@ -0,0 +1,169 @@
+package com.mentor.club.service;
+
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.mentor.club.model.authentication.token.DeviceSession;
+import com.mentor.club.model.authentication.token.TokenDigest;
+import com.mentor.club.model.authentication.token.abstracts.JwtTokenWithDeviceId;
+import com.mentor.club.model.authentication.token.concretes.AccessToken;
+import com.mentor.club.model.authentication.token.concretes.EmailConfirmToken;
+import com.mentor.club.model.authentication.token.concretes.RefreshToken;
+import com.mentor.club.model.authentication.token.enums.JwtTokenType;
+import com.mentor.club.model.authentication.token.factories.JwtTokenFactory;
+import com.mentor.club.model.authentication.token.factories.JwtWithDeviceIdTokenFactory;
+import com.mentor.club.model.authentication.token.factories.OpaqueTokenGenerator;
+import com.mentor.club.model.authentication.token.factories.SecureRandomPool;
+import com.mentor.club.model.authentication.token.factories.ShortCodeTokenGenerator;
+import com.mentor.club.model.authentication.token.factories.SignedJwtTokenGenerator;
+import com.mentor.club.model.user.User;
+import com.mentor.club.repository.IAccessTokenRepository;
+import com.mentor.club.repository.IEmailConfirmTokenRepository;
+import com.mentor.club.repository.IRefreshTokenRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static com.mentor.club.service.RsaService.USERNAME_CLAIM;
+import static org.junit.Assert.*;
+import static org.mockito.AdditionalMatchers.aryEq;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Only the digest of a token is persisted, these tests make sure the digest written on save is the one used for lookups
+ */
+public class JwtServiceTest {
+    private static final String USERNAME = "username";
+    private static final String SIGNED_ACCESS_TOKEN = "header.payload.signature";
+
+    private UserCacheService userCacheService;
+    private IAccessTokenRepository accessTokenRepository;
+    private IRefreshTokenRepository refreshTokenRepository;
+    private IEmailConfirmTokenRepository emailConfirmTokenRepository;
+    private VerifiedTokenCacheService verifiedTokenCacheService;
+    private ReplicaReadService replicaReadService;
+    private DeviceSessionService deviceSessionService;
+
+    private User user;
+
+    private JwtService jwtService;
+
+    @Before
+    public void init() {
+        userCacheService = mock(UserCacheService.class);
+        // the ...ByToken methods are default methods of the repositories that hash the token before the lookup
+        accessTokenRepository = mock(IAccessTokenRepository.class, CALLS_REAL_METHODS);
+        refreshTokenRepository = mock(IRefreshTokenRepository.class, CALLS_REAL_METHODS);
+        emailConfirmTokenRepository = mock(IEmailConfirmTokenRepository.class, CALLS_REAL_METHODS);
+        verifiedTokenCacheService = mock(VerifiedTokenCacheService.class);
+        replicaReadService = mock(ReplicaReadService.class);
+        deviceSessionService = mock(DeviceSessionService.class);
+
+        SecureRandomPool secureRandomPool = new SecureRandomPool();
+        SignedJwtTokenGenerator signedJwtTokenGenerator = mock(SignedJwtTokenGenerator.class);
+
+        when(signedJwtTokenGenerator.generateToken(any(), anyLong())).thenReturn(SIGNED_ACCESS_TOKEN);
+        when(replicaReadService.read(any(), any(), any())).thenAnswer(invocation -> ((Supplier<?>) invocation.getArgument(1)).get());
+
+        jwtService = new JwtService(userCacheService,
+                accessTokenRepository,
+                refreshTokenRepository,
+                mock(RsaService.class),
+                verifiedTokenCacheService,
+                mock(SessionEpochService.class),
+                mock(RevocationFilterService.class),
+                mock(UserThumbnailService.class),
+                deviceSessionService,
+                replicaReadService,
+                new JwtTokenFactory(new ShortCodeTokenGenerator(secureRandomPool)),
+                new JwtWithDeviceIdTokenFactory(signedJwtTokenGenerator, new OpaqueTokenGenerator(secureRandomPool)),
+                new SimpleMeterRegistry());
+
+        user = new User();
+        user.setUsername(USERNAME);
+        ReflectionTestUtils.setField(user, "id", UUID.randomUUID());
+    }
+
+    @Test
+    public void setToken_storesDigestOfPlainToken() {
+        AccessToken accessToken = new AccessToken(JwtTokenType.ACCESS_TOKEN, UUID.randomUUID());
+
+        accessToken.setToken(SIGNED_ACCESS_TOKEN);
+
+        assertEquals(TokenDigest.LENGTH_IN_BYTES, accessToken.getTokenDigest().length);
+        assertArrayEquals(TokenDigest.of(SIGNED_ACCESS_TOKEN), accessToken.getTokenDigest());
+        assertFalse(Arrays.equals(TokenDigest.of(SIGNED_ACCESS_TOKEN + "x"), accessToken.getTokenDigest()));
+    }
+
+    @Test
+    public void prefixOf_returnsHexOfFirstDigestBytes() {
+        byte[] tokenDigest = TokenDigest.of(SIGNED_ACCESS_TOKEN);
+
+        assertEquals(String.format("%02x%02x%02x%02x", tokenDigest[0], tokenDigest[1], tokenDigest[2], tokenDigest[3]), TokenDigest.prefixOf(SIGNED_ACCESS_TOKEN));
+        assertNull(TokenDigest.prefixOf(null));
+    }
+
+    @Test
+    public void createJwtToken_savedTokenIsFoundByPlainToken() {
+        EmailConfirmToken emailConfirmToken = jwtService.createJwtToken(user, 60L, emailConfirmTokenRepository, JwtTokenType.EMAIL_CONFIRM_TOKEN);
+
+        verify(emailConfirmTokenRepository, times(1)).save(emailConfirmToken);
+
+        doAnswer(invocation -> Arrays.equals(invocation.getArgument(0), emailConfirmToken.getTokenDigest()) ? Optional.of(emailConfirmToken) : Optional.empty())
+                .when(emailConfirmTokenRepository).findByTokenDigest(any());
+
+        assertEquals(Optional.of(emailConfirmToken), emailConfirmTokenRepository.findByToken(emailConfirmToken.getToken()));
+        assertEquals(Optional.empty(), emailConfirmTokenRepository.findByToken(emailConfirmToken.getToken() + "0"));
+    }
+
+    @Test
+    public void createDeviceSession_savedRefreshTokenIsFoundByPlainTokenAndDeviceId() {
+        UUID deviceId = UUID.randomUUID();
+        RefreshToken refreshToken = jwtService.createDeviceSession(user, deviceId).getRefreshToken();
+
+        doAnswer(invocation -> Arrays.equals(invocation.getArgument(0), refreshToken.getTokenDigest()) && deviceId.equals(invocation.getArgument(1))
+                ? Optional.of(refreshToken)
+                : Optional.empty())
+                .when(refreshTokenRepository).findByTokenDigestAndDeviceId(any(), any());
+
+        Optional<JwtTokenWithDeviceId> optionalRefreshToken = refreshTokenRepository.findByTokenAndDeviceId(refreshToken.getToken(), deviceId);
+
+        assertTrue(optionalRefreshToken.isPresent());
+        assertSame(refreshToken, optionalRefreshToken.get());
+        assertFalse(refreshTokenRepository.findByTokenAndDeviceId(refreshToken.getToken(), UUID.randomUUID()).isPresent());
+    }
+
+    @Test
+    public void validateAccessToken_looksUpDigestOfSavedAccessToken() {
+        DeviceSession deviceSession = jwtService.createDeviceSession(user, UUID.randomUUID());
+        AccessToken accessToken = deviceSession.getAccessToken();
+
+        verify(deviceSessionService, times(1)).replaceDeviceTokens(user.getId(), accessToken, deviceSession.getRefreshToken());
+
+        mockDecodedAccessToken(accessToken.getToken());
+        when(userCacheService.findUserByUsername(USERNAME)).thenReturn(Optional.of(user));
+        doAnswer(invocation -> Arrays.equals(invocation.getArgument(1), accessToken.getTokenDigest()))
+                .when(accessTokenRepository).existsByUserIdAndTokenDigestAndExpirationDateAfter(any(), any(), any());
+
+        assertTrue(jwtService.validateAccessToken("Bearer " + accessToken.getToken()).getStatusCode().is2xxSuccessful());
+        verify(accessTokenRepository, times(1)).existsByUserIdAndTokenDigestAndExpirationDateAfter(eq(user.getId()), aryEq(accessToken.getTokenDigest()), any(Date.class));
+    }
+
+    private void mockDecodedAccessToken(String token) {
+        DecodedJWT decodedJWT = mock(DecodedJWT.class, RETURNS_DEEP_STUBS);
+
+        when(decodedJWT.getToken()).thenReturn(token);
+        when(decodedJWT.getClaims().get(USERNAME_CLAIM).asString()).thenReturn(USERNAME);
+        when(decodedJWT.getExpiresAt()).thenReturn(Date.from(Instant.now().plusSeconds(60)));
+        when(decodedJWT.getId()).thenReturn(null);
+        when(verifiedTokenCacheService.getOrVerify(eq(token), any(Function.class))).thenReturn(decodedJWT);
+    }
+}
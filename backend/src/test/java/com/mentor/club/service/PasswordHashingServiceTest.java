@@ -0,0 +1,246 @@
+package com.mentor.club.service;
+
+import com.mentor.club.exception.PasswordHashingRejectedException;
+import com.mentor.club.model.authentication.token.factories.SecureRandomPool;
+import com.mentor.club.service.password.Argon2idPasswordEncoder;
+import com.mentor.club.service.password.BCryptPasswordEncoder;
+import com.mentor.club.service.password.IPasswordEncoder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class PasswordHashingServiceTest {
+    private SimpleMeterRegistry meterRegistry;
+
+    private PasswordHashingService passwordHashingService;
+
+    private BCryptPasswordEncoder bCryptPasswordEncoder;
+
+    private CountDownLatch releaseWorker;
+
+    @Before
+    public void init() {
+        meterRegistry = new SimpleMeterRegistry();
+        bCryptPasswordEncoder = new BCryptPasswordEncoder(meterRegistry);
+        releaseWorker = new CountDownLatch(1);
+
+        ReflectionTestUtils.setField(bCryptPasswordEncoder, "cost", 4);
+    }
+
+    @After
+    public void tearDown() {
+        releaseWorker.countDown();
+
+        if (passwordHashingService != null) {
+            passwordHashingService.shutdown();
+        }
+    }
+
+    @Test
+    public void hash_returnsHashThatVerifies() {
+        passwordHashingService = createPasswordHashingService(1, 8, 5000);
+
+        String hashedPassword = passwordHashingService.hash("test-password");
+
+        assertTrue(passwordHashingService.verify("test-password", hashedPassword));
+        assertFalse(passwordHashingService.verify("wrong-password", hashedPassword));
+        assertEquals(1, meterRegistry.timer("password.hashing.duration", "operation", "hash").count());
+        assertEquals(2, meterRegistry.timer("password.hashing.duration", "operation", "verify").count());
+        assertEquals(3, meterRegistry.timer("password.hashing.wait").count());
+    }
+
+    @Test
+    public void verify_ifHashFormatIsUnknown_throwsIllegalArgumentException() {
+        passwordHashingService = createPasswordHashingService(1, 8, 5000);
+
+        try {
+            passwordHashingService.verify("test-password", "not-a-password-hash");
+
+            fail();
+        } catch (IllegalArgumentException exception) {
+            // no encoder supports the hash
+        }
+    }
+
+    @Test
+    public void verify_ifHashIsInvalid_throwsTheErrorOfTheEncoder() {
+        passwordHashingService = createPasswordHashingService(1, 8, 5000);
+
+        try {
+            passwordHashingService.verify("test-password", "$argon2id$v=19$m=64$invalid");
+
+            fail();
+        } catch (IllegalArgumentException exception) {
+            // thrown on the calling thread as if the encoder ran there
+        }
+    }
+
+    @Test
+    public void run_ifQueueIsFull_rejectsRightAway() throws Exception {
+        passwordHashingService = createPasswordHashingService(1, 1, 5000);
+
+        CompletableFuture<Boolean> runningWork = CompletableFuture.supplyAsync(() -> passwordHashingService.run("verify", this::blockWorker));
+
+        awaitQueueSize(0);
+
+        CompletableFuture<Boolean> queuedWork = CompletableFuture.supplyAsync(() -> passwordHashingService.run("verify", () -> true));
+
+        awaitQueueSize(1);
+
+        try {
+            passwordHashingService.run("verify", () -> true);
+
+            fail();
+        } catch (PasswordHashingRejectedException exception) {
+            assertEquals(HttpStatus.SERVICE_UNAVAILABLE.value(), exception.getStatusCode());
+        }
+
+        releaseWorker.countDown();
+
+        assertTrue(runningWork.get(5, TimeUnit.SECONDS));
+        assertTrue(queuedWork.get(5, TimeUnit.SECONDS));
+        assertEquals(1.0, meterRegistry.counter("password.hashing.rejected", "reason", "queue-full").count(), 0.0);
+    }
+
+    @Test
+    public void run_ifWorkIsNotDoneWithinTimeout_rejects() throws Exception {
+        passwordHashingService = createPasswordHashingService(1, 1, 50);
+
+        CompletableFuture.runAsync(() -> {
+            try {
+                passwordHashingService.run("verify", this::blockWorker);
+            } catch (PasswordHashingRejectedException exception) {
+                // the blocked work times out as well
+            }
+        });
+
+        awaitQueueSize(0);
+
+        try {
+            passwordHashingService.run("verify", () -> true);
+
+            fail();
+        } catch (PasswordHashingRejectedException exception) {
+            assertEquals(HttpStatus.SERVICE_UNAVAILABLE.value(), exception.getStatusCode());
+        }
+
+        assertTrue(meterRegistry.counter("password.hashing.rejected", "reason", "timeout").count() >= 1.0);
+    }
+
+    @Test
+    public void verify_verifiesHashesOfEveryEncoder() {
+        passwordHashingService = createPasswordHashingService(1, 8, 5000);
+
+        String bcryptHashedPassword = bCryptPasswordEncoder.encode("test-password");
+
+        assertTrue(passwordHashingService.verify("test-password", bcryptHashedPassword));
+        assertFalse(passwordHashingService.verify("wrong-password", bcryptHashedPassword));
+        assertTrue(passwordHashingService.verify("test-password", passwordHashingService.hash("test-password")));
+    }
+
+    @Test
+    public void needsRehash_ifHashIsOfAnotherAlgorithmOrHasOtherParameters_returnsTrue() {
+        passwordHashingService = createPasswordHashingService(1, 8, 5000);
+
+        assertTrue(passwordHashingService.needsRehash(bCryptPasswordEncoder.encode("test-password")));
+        assertTrue(passwordHashingService.needsRehash(new Argon2idPasswordEncoder(new SecureRandomPool(), 32, 1, 1).encode("test-password")));
+        assertFalse(passwordHashingService.needsRehash(passwordHashingService.hash("test-password")));
+        assertFalse(passwordHashingService.needsRehash("not-a-password-hash"));
+    }
+
+    @Test
+    public void rehashInBackground_storesHashOfCurrentEncoder() throws Exception {
+        passwordHashingService = createPasswordHashingService(1, 8, 5000);
+
+        CompletableFuture<String> storedHash = new CompletableFuture<>();
+
+        passwordHashingService.rehashInBackground("test-password", storedHash::complete);
+
+        String newHashedPassword = storedHash.get(5, TimeUnit.SECONDS);
+
+        assertTrue(newHashedPassword.startsWith("$argon2id$"));
+        assertFalse(passwordHashingService.needsRehash(newHashedPassword));
+        assertTrue(passwordHashingService.verify("test-password", newHashedPassword));
+        assertEquals(1.0, meterRegistry.counter("password.rehashed", "result", "updated").count(), 0.0);
+    }
+
+    @Test
+    public void rehashInBackground_ifWorkIsQueued_skipsRehash() throws Exception {
+        passwordHashingService = createPasswordHashingService(1, 8, 5000);
+
+        CompletableFuture.supplyAsync(() -> passwordHashingService.run("verify", this::blockWorker));
+
+        awaitQueueSize(0);
+
+        CompletableFuture.supplyAsync(() -> passwordHashingService.run("verify", () -> true));
+
+        awaitQueueSize(1);
+
+        passwordHashingService.rehashInBackground("test-password", newHashedPassword -> {
+            fail();
+
+            return true;
+        });
+
+        assertEquals(1.0, meterRegistry.counter("password.rehashed", "result", "skipped").count(), 0.0);
+    }
+
+    /**
+     * Hashes new passwords with argon2id of low memory, and verifies bcrypt hashes as well
+     */
+    private PasswordHashingService createPasswordHashingService(int threads, int queueCapacity, long timeoutInMilliseconds) {
+        List<IPasswordEncoder> passwordEncoders = Arrays.asList(bCryptPasswordEncoder, new Argon2idPasswordEncoder(new SecureRandomPool(), 64, 1, 1));
+
+        return new PasswordHashingService(threads, queueCapacity, timeoutInMilliseconds, Argon2idPasswordEncoder.ALGORITHM, passwordEncoders, meterRegistry);
+    }
+
+    /**
+     * Keeps the worker busy until released, like a password hash it does not stop when interrupted
+     */
+    private boolean blockWorker() {
+        boolean isInterrupted = false;
+
+        try {
+            while (true) {
+                try {
+                    return releaseWorker.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException exception) {
+                    isInterrupted = true;
+                }
+            }
+        } finally {
+            if (isInterrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Waits until the worker picked up the blocking work and the queue holds the expected number of tasks
+     */
+    private void awaitQueueSize(int expectedQueueSize) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+
+        while (System.nanoTime() < deadline) {
+            if (meterRegistry.get("password.hashing.queue.size").gauge().value() == expectedQueueSize
+                    && meterRegistry.timer("password.hashing.wait").count() >= 1) {
+                return;
+            }
+
+            Thread.sleep(5);
+        }
+
+        fail("queue size did not reach " + expectedQueueSize);
+    }
+}
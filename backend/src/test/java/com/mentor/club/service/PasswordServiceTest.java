@@ -7,7 +7,8 @@ import com.mentor.club.model.error.HttpCallError;
 import com.mentor.club.model.password.ChangeForgottenPasswordRequest;
 import com.mentor.club.model.user.User;
 import com.mentor.club.repository.IPasswordResetTokenRepository;
-import com.mentor.club.repository.IUserRepository;
+import com.mentor.club.service.password.BCryptPasswordEncoder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -18,6 +19,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.TestPropertySource;
 
 import java.time.Instant;
+import java.util.Collections;
 import java.util.Date;
 import java.util.Optional;
 
@@ -32,7 +34,11 @@ public class PasswordServiceTest {
     private PasswordService passwordService;
 
     @Mock
-    private IUserRepository userRepository;
+    private UserCacheService userCacheService;
+
+    @Spy
+    private PasswordHashingService passwordHashingService = new PasswordHashingService(1, 8, 5000, BCryptPasswordEncoder.ALGORITHM,
+            Collections.singletonList(new BCryptPasswordEncoder(new SimpleMeterRegistry())), new SimpleMeterRegistry());
 
     @Mock
     private AwsService awsService;
@@ -78,7 +84,7 @@ public class PasswordServiceTest {
 
         Optional<User> userWithGivenEmail = Optional.empty();
 
-        when(userRepository.findUserByEmail(userEmail)).thenReturn(userWithGivenEmail);
+        when(userCacheService.findUserByEmail(userEmail)).thenReturn(userWithGivenEmail);
 
         ResponseEntity responseEntity = passwordService.generateResetForgottenPasswordEmail(userEmail);
 
@@ -89,7 +95,7 @@ public class PasswordServiceTest {
     public void generateResetForgottenPasswordEmail_ifExceptionInThrownInUserRepository_returnsResponseWithStatusInternalServerError() {
         String userEmail = "test-email";
 
-        when(userRepository.findUserByEmail(userEmail)).thenThrow(new InternalException(HttpStatus.BAD_REQUEST, HttpCallError.FAILED_TO_FIND_USER));
+        when(userCacheService.findUserByEmail(userEmail)).thenThrow(new InternalException(HttpStatus.BAD_REQUEST, HttpCallError.FAILED_TO_FIND_USER));
 
         ResponseEntity responseEntity = passwordService.generateResetForgottenPasswordEmail(userEmail);
 
@@ -105,7 +111,7 @@ public class PasswordServiceTest {
 
         Optional<User> userWithGivenEmail = Optional.of(user);
 
-        when(userRepository.findUserByEmail(userEmail)).thenReturn(userWithGivenEmail);
+        when(userCacheService.findUserByEmail(userEmail)).thenReturn(userWithGivenEmail);
         when(passwordResetTokenRepository.save(any())).thenThrow(new InternalException(HttpStatus.BAD_REQUEST, HttpCallError.FAILED_TO_SAVE_TO_DB));
 
         ResponseEntity responseEntity = passwordService.generateResetForgottenPasswordEmail(userEmail);
@@ -123,7 +129,7 @@ public class PasswordServiceTest {
         Optional<User> userWithGivenEmail = Optional.of(user);
         PasswordResetToken passwordResetToken = new PasswordResetToken(JwtTokenType.PASSWORD_RESET_TOKEN);
 
-        when(userRepository.findUserByEmail(userEmail)).thenReturn(userWithGivenEmail);
+        when(userCacheService.findUserByEmail(userEmail)).thenReturn(userWithGivenEmail);
         when(passwordResetTokenRepository.save(any())).thenReturn(passwordResetToken);
         when(awsService.sendPasswordResetEmail(any(), any(), any())).thenThrow(new InternalException(HttpStatus.BAD_REQUEST, HttpCallError.SERVICE_UNAVAILABLE));
 
@@ -145,7 +151,7 @@ public class PasswordServiceTest {
 
         passwordResetToken.setToken("testToken");
 
-        when(userRepository.findUserByEmail(userEmail)).thenReturn(userWithGivenEmail);
+        when(userCacheService.findUserByEmail(userEmail)).thenReturn(userWithGivenEmail);
         when(passwordResetTokenRepository.save(any())).thenReturn(passwordResetToken);
         when(awsService.sendPasswordResetEmail(any(), any(), any())).thenReturn(testHttpStatus);
 
@@ -158,7 +164,7 @@ public class PasswordServiceTest {
     public void changeForgottenPassword_ifPasswordResetTokenRepositoryThrowsException_returnsResponseWithStatusNotOK() {
         ChangeForgottenPasswordRequest changeForgottenPasswordRequest = new ChangeForgottenPasswordRequest();
 
-        when(passwordResetTokenRepository.findByToken(any())).thenThrow(new InternalException(HttpStatus.BAD_REQUEST, HttpCallError.FAILED_TO_FIND_TOKEN));
+        when(passwordResetTokenRepository.findWithUserByToken(any())).thenThrow(new InternalException(HttpStatus.BAD_REQUEST, HttpCallError.FAILED_TO_FIND_TOKEN));
 
         ResponseEntity responseEntity = passwordService.changeForgottenPassword(changeForgottenPasswordRequest);
 
@@ -169,7 +175,7 @@ public class PasswordServiceTest {
     public void changeForgottenPassword_ifPasswordResetTokenRepositoryCannotFindToken_returnsResponseWithStatusUnauthorized() {
         ChangeForgottenPasswordRequest changeForgottenPasswordRequest = new ChangeForgottenPasswordRequest();
 
-        when(passwordResetTokenRepository.findByToken(any())).thenReturn(Optional.empty());
+        when(passwordResetTokenRepository.findWithUserByToken(any())).thenReturn(Optional.empty());
 
         ResponseEntity responseEntity = passwordService.changeForgottenPassword(changeForgottenPasswordRequest);
 
@@ -182,7 +188,7 @@ public class PasswordServiceTest {
         PasswordResetToken passwordResetToken = new PasswordResetToken(JwtTokenType.PASSWORD_RESET_TOKEN);
         passwordResetToken.setExpirationDate(Date.from(Instant.now().minusSeconds(1)));
 
-        when(passwordResetTokenRepository.findByToken(any())).thenReturn(Optional.of(passwordResetToken));
+        when(passwordResetTokenRepository.findWithUserByToken(any())).thenReturn(Optional.of(passwordResetToken));
 
         ResponseEntity responseEntity = passwordService.changeForgottenPassword(changeForgottenPasswordRequest);
 
@@ -195,7 +201,7 @@ public class PasswordServiceTest {
         PasswordResetToken passwordResetToken = new PasswordResetToken(JwtTokenType.PASSWORD_RESET_TOKEN);
         passwordResetToken.setExpirationDate(Date.from(Instant.now().plusSeconds(1000)));
 
-        when(passwordResetTokenRepository.findByToken(any())).thenReturn(Optional.of(passwordResetToken));
+        when(passwordResetTokenRepository.findWithUserByToken(any())).thenReturn(Optional.of(passwordResetToken));
 
         ResponseEntity responseEntity = passwordService.changeForgottenPassword(changeForgottenPasswordRequest);
 
@@ -211,12 +217,12 @@ public class PasswordServiceTest {
         passwordResetToken.setExpirationDate(Date.from(Instant.now().plusSeconds(1000)));
         passwordResetToken.setUser(user);
 
-        when(passwordResetTokenRepository.findByToken(any())).thenReturn(Optional.of(passwordResetToken));
-        when(userRepository.save(any())).thenThrow(new InternalException(HttpStatus.INTERNAL_SERVER_ERROR, HttpCallError.FAILED_TO_SAVE_TO_DB));
+        when(passwordResetTokenRepository.findWithUserByToken(any())).thenReturn(Optional.of(passwordResetToken));
+        when(userCacheService.save(any())).thenThrow(new InternalException(HttpStatus.INTERNAL_SERVER_ERROR, HttpCallError.FAILED_TO_SAVE_TO_DB));
 
         ResponseEntity responseEntity = passwordService.changeForgottenPassword(changeForgottenPasswordRequest);
 
-        verify(userRepository, times(1)).save(any());
+        verify(userCacheService, times(1)).save(any());
 
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, responseEntity.getStatusCode());
     }
@@ -235,15 +241,15 @@ public class PasswordServiceTest {
 
         changeForgottenPasswordRequest.setNewPassword(newPassword);
 
-        when(passwordResetTokenRepository.findByToken(any())).thenReturn(Optional.of(passwordResetToken));
-        when(userRepository.save(any())).thenReturn(user);
+        when(passwordResetTokenRepository.findWithUserByToken(any())).thenReturn(Optional.of(passwordResetToken));
+        when(userCacheService.save(any())).thenReturn(user);
 
         assertTrue(passwordService.isProvidedPasswordCorrect(oldPassword, user.getHashedPassword()));
 
         ResponseEntity responseEntity = passwordService.changeForgottenPassword(changeForgottenPasswordRequest);
 
-        verify(userRepository, times(1)).save(any());
-        verify(userRepository).save(userArgumentCaptor.capture());
+        verify(userCacheService, times(1)).save(any());
+        verify(userCacheService).save(userArgumentCaptor.capture());
 
         User updatedUser = userArgumentCaptor.getValue();
 
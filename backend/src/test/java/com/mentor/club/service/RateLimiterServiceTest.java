@@ -0,0 +1,185 @@
+package com.mentor.club.service;
+
+import com.mentor.club.exception.RateLimitedException;
+import com.mentor.club.service.RateLimiterService.RateLimitPolicy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpStatus;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class RateLimiterServiceTest {
+    private static final String POLICY = "authenticate-username";
+    private static final String CLIENT_POLICY = "authenticate-client";
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private AtomicLong now;
+
+    private RateLimiterService rateLimiterService;
+
+    @Before
+    public void init() {
+        meterRegistry = new SimpleMeterRegistry();
+        now = new AtomicLong();
+        rateLimiterService = createRateLimiterService(true);
+    }
+
+    @Test
+    public void acquire_ifBucketIsEmpty_throwsRateLimitedExceptionWithRetryAfter() {
+        for (int i = 0; i < 3; i++) {
+            rateLimiterService.acquire(POLICY, "test-username");
+        }
+
+        try {
+            rateLimiterService.acquire(POLICY, "test-username");
+
+            fail();
+        } catch (RateLimitedException exception) {
+            assertEquals(HttpStatus.TOO_MANY_REQUESTS.value(), exception.getStatusCode());
+            // 3 tokens per 60 seconds, one every 20 seconds
+            assertEquals(20, exception.getRetryAfterInSeconds());
+        }
+
+        assertEquals(1.0, meterRegistry.counter("rate.limiter.rejected", "policy", POLICY).count(), 0.0);
+    }
+
+    @Test
+    public void acquire_refillsBucketOverTime() {
+        for (int i = 0; i < 3; i++) {
+            rateLimiterService.acquire(POLICY, "test-username");
+        }
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(15));
+
+        try {
+            rateLimiterService.acquire(POLICY, "test-username");
+
+            fail();
+        } catch (RateLimitedException exception) {
+            assertEquals(5, exception.getRetryAfterInSeconds());
+        }
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(5));
+
+        rateLimiterService.acquire(POLICY, "test-username");
+    }
+
+    @Test
+    public void acquire_keepsBucketPerKeyIgnoringCase() {
+        for (int i = 0; i < 3; i++) {
+            rateLimiterService.acquire(POLICY, "Test-Username");
+        }
+
+        try {
+            rateLimiterService.acquire(POLICY, " test-username ");
+
+            fail();
+        } catch (RateLimitedException exception) {
+            // same bucket
+        }
+
+        rateLimiterService.acquire(POLICY, "other-username");
+    }
+
+    @Test
+    public void acquire_ifKeyOrPolicyIsMissing_doesNotLimit() {
+        for (int i = 0; i < 10; i++) {
+            rateLimiterService.acquire(POLICY, null);
+            rateLimiterService.acquire(POLICY, "");
+            rateLimiterService.acquire("unknown-policy", "test-username");
+        }
+    }
+
+    @Test
+    public void acquire_ifDisabled_doesNotLimit() {
+        rateLimiterService = createRateLimiterService(false);
+
+        for (int i = 0; i < 10; i++) {
+            rateLimiterService.acquire(POLICY, "test-username");
+        }
+    }
+
+    @Test
+    public void acquire_ifFloodedWithOtherAccounts_keepsBucketOfTheAttackedAccount() {
+        for (int i = 0; i < 3; i++) {
+            rateLimiterService.acquire(POLICY, "test-username");
+        }
+
+        for (int i = 0; i < 20; i++) {
+            try {
+                rateLimiterService.acquire(POLICY, "made-up-username-" + i);
+            } catch (RateLimitedException exception) {
+                // no room for more accounts
+            }
+        }
+
+        try {
+            rateLimiterService.acquire(POLICY, "test-username");
+
+            fail();
+        } catch (RateLimitedException exception) {
+            assertEquals(20, exception.getRetryAfterInSeconds());
+        }
+    }
+
+    @Test
+    public void acquire_ifAccountBucketsAreFull_rejectsNewAccountsUntilIdleBucketsAreDropped() {
+        for (int i = 0; i < 10; i++) {
+            rateLimiterService.acquire(POLICY, "test-username-" + i);
+        }
+
+        try {
+            rateLimiterService.acquire(POLICY, "new-username");
+
+            fail();
+        } catch (RateLimitedException exception) {
+            assertEquals(1, exception.getRetryAfterInSeconds());
+        }
+
+        // every bucket took one of 3 tokens and gets half a token back, so none is full yet
+        now.addAndGet(TimeUnit.SECONDS.toNanos(10));
+
+        try {
+            rateLimiterService.acquire(POLICY, "new-username");
+
+            fail();
+        } catch (RateLimitedException exception) {
+            // not yet full again
+        }
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(10));
+
+        rateLimiterService.acquire(POLICY, "new-username");
+        assertEquals(1.0, meterRegistry.get("rate.limiter.account.buckets").gauge().value(), 0.0);
+    }
+
+    @Test
+    public void acquire_ifClientBucketsAreFull_evictsLeastRecentlyUsed() {
+        rateLimiterService = new RateLimiterService(true, 4, 100, 10,
+                Collections.singletonMap(CLIENT_POLICY, new RateLimitPolicy(3, 60, false)), now::get, meterRegistry);
+
+        for (int i = 0; i < 1000; i++) {
+            rateLimiterService.acquire(CLIENT_POLICY, "10.0.0." + i);
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void createRateLimiterService_ifCapacityIsZero_throwsIllegalStateException() {
+        new RateLimiterService(true, 4, 100, 10, Collections.singletonMap(POLICY, new RateLimitPolicy(0, 60, true)), now::get, meterRegistry);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void createRateLimiterService_ifRefillPeriodIsZero_throwsIllegalStateException() {
+        new RateLimiterService(true, 4, 100, 10, Collections.singletonMap(POLICY, new RateLimitPolicy(3, 0, true)), now::get, meterRegistry);
+    }
+
+    private RateLimiterService createRateLimiterService(boolean isEnabled) {
+        return new RateLimiterService(isEnabled, 4, 100, 10, Collections.singletonMap(POLICY, new RateLimitPolicy(3, 60, true)), now::get, meterRegistry);
+    }
+}
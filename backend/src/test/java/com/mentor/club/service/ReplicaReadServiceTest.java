@@ -0,0 +1,174 @@
+package com.mentor.club.service;
+
+import com.mentor.club.config.ReplicaRoutingDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.Collections;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.*;
+
+public class ReplicaReadServiceTest {
+    private static final String PRIMARY = "primary";
+    private static final String REPLICA = "replica";
+
+    private DataSource primary;
+    private DataSource replica;
+    private LazyConnectionDataSourceProxy dataSource;
+    private DataSourceTransactionManager transactionManager;
+
+    private ReplicaReadService replicaReadService;
+
+    @Before
+    public void init() throws Exception {
+        primary = mockDataSource();
+        replica = mockDataSource();
+
+        createDataSource(new ReplicaRoutingDataSource(primary, Collections.singletonList(replica)));
+    }
+
+    @Test
+    public void read_ifUserWasNotWritten_readsFromReplica() throws Exception {
+        String source = replicaReadService.read(UUID.randomUUID(), this::readSource, result -> false);
+
+        assertEquals(REPLICA, source);
+        verify(primary, never()).getConnection();
+    }
+
+    @Test
+    public void read_ifReplicaMisses_readsAgainFromPrimary() throws Exception {
+        String source = replicaReadService.read(UUID.randomUUID(), this::readSource, REPLICA::equals);
+
+        assertEquals(PRIMARY, source);
+        verify(replica, times(1)).getConnection();
+    }
+
+    @Test
+    public void read_ifReplicaFails_readsAgainFromPrimary() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+        replicaReadService = new ReplicaReadService(transactionManager, 60000, 100, meterRegistry);
+
+        String source = replicaReadService.read(UUID.randomUUID(), () -> {
+            String currentSource = readSource();
+
+            if (REPLICA.equals(currentSource)) {
+                throw new DataAccessResourceFailureException("cannot access temporary or unlogged relations during recovery");
+            }
+
+            return currentSource;
+        }, result -> false);
+
+        assertEquals(PRIMARY, source);
+        verify(replica, times(1)).getConnection();
+        assertEquals(1.0, meterRegistry.counter("datasource.replica.reads", "source", "primary-after-error").count(), 0.0);
+    }
+
+    @Test
+    public void read_afterWriteOfUser_readsFromPrimary() throws Exception {
+        UUID userId = UUID.randomUUID();
+
+        replicaReadService.recordWrite(userId);
+
+        String source = replicaReadService.read(userId, this::readSource, result -> false);
+
+        assertEquals(PRIMARY, source);
+        verify(replica, never()).getConnection();
+    }
+
+    @Test
+    public void read_afterWriteOfOtherUser_readsFromReplica() {
+        replicaReadService.recordWrite(UUID.randomUUID());
+
+        String source = replicaReadService.read(UUID.randomUUID(), this::readSource, result -> false);
+
+        assertEquals(REPLICA, source);
+    }
+
+    @Test
+    public void read_afterReadYourWritesWindow_readsFromReplica() throws Exception {
+        UUID userId = UUID.randomUUID();
+
+        replicaReadService = new ReplicaReadService(transactionManager, 10, 100, new SimpleMeterRegistry());
+        replicaReadService.recordWrite(userId);
+
+        Thread.sleep(50);
+
+        String source = replicaReadService.read(userId, this::readSource, result -> false);
+
+        assertEquals(REPLICA, source);
+    }
+
+    @Test
+    public void readOnlyTransactionNotOptedIntoReplicaReads_readsFromPrimary() {
+        TransactionTemplate readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+
+        readOnlyTransactionTemplate.setReadOnly(true);
+
+        String source = readOnlyTransactionTemplate.execute(status -> readSource());
+
+        assertEquals(PRIMARY, source);
+    }
+
+    @Test
+    public void read_withoutReplicas_readsFromPrimary() throws Exception {
+        createDataSource(new ReplicaRoutingDataSource(primary, Collections.emptyList()));
+
+        String source = replicaReadService.read(UUID.randomUUID(), this::readSource, result -> false);
+
+        assertEquals(PRIMARY, source);
+    }
+
+    private void createDataSource(ReplicaRoutingDataSource routingDataSource) {
+        dataSource = new LazyConnectionDataSourceProxy();
+        dataSource.setDefaultAutoCommit(true);
+        dataSource.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        dataSource.setTargetDataSource(routingDataSource);
+        dataSource.afterPropertiesSet();
+
+        transactionManager = new DataSourceTransactionManager(dataSource);
+        replicaReadService = new ReplicaReadService(transactionManager, 60000, 100, new SimpleMeterRegistry());
+    }
+
+    /**
+     * Runs a statement like a repository would and tells which data source served it
+     */
+    private String readSource() {
+        try {
+            Connection connection = DataSourceUtils.getConnection(dataSource);
+
+            try {
+                return connection.getMetaData().getURL();
+            } finally {
+                DataSourceUtils.releaseConnection(connection, dataSource);
+            }
+        } catch (Exception exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    private DataSource mockDataSource() throws Exception {
+        DataSource dataSource = mock(DataSource.class);
+
+        when(dataSource.getConnection()).thenAnswer(invocation -> {
+            Connection connection = mock(Connection.class, RETURNS_DEEP_STUBS);
+
+            when(connection.getMetaData().getURL()).thenReturn(dataSource == primary ? PRIMARY : REPLICA);
+            when(connection.getAutoCommit()).thenReturn(true);
+
+            return connection;
+        });
+
+        return dataSource;
+    }
+}
@@ -0,0 +1,169 @@
+package com.mentor.club.service;
+
+import com.mentor.club.model.authentication.revocation.RevokedAccessToken;
+import com.mentor.club.model.authentication.token.concretes.AccessToken;
+import com.mentor.club.model.authentication.token.concretes.RefreshToken;
+import com.mentor.club.model.authentication.token.enums.JwtTokenType;
+import com.mentor.club.repository.IRevokedAccessTokenRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Date;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+public class RevocationFilterServiceTest {
+    private IRevokedAccessTokenRepository revokedAccessTokenRepository;
+    private SimpleMeterRegistry meterRegistry;
+
+    private RevocationFilterService revocationFilterService;
+
+    @Before
+    public void init() {
+        revokedAccessTokenRepository = mock(IRevokedAccessTokenRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        revocationFilterService = new RevocationFilterService(revokedAccessTokenRepository, meterRegistry);
+
+        when(revokedAccessTokenRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        ReflectionTestUtils.setField(revocationFilterService, "enabled", true);
+        ReflectionTestUtils.setField(revocationFilterService, "expectedInsertions", 1000);
+        ReflectionTestUtils.setField(revocationFilterService, "falsePositiveProbability", 0.01);
+        ReflectionTestUtils.setField(revocationFilterService, "sliceInSeconds", 1L);
+    }
+
+    @Test
+    public void mightBeRevoked_ifTokenWasRevoked_returnsTrue() {
+        revocationFilterService.init();
+
+        AccessToken accessToken = createAccessToken(Instant.now().plusSeconds(600));
+
+        revocationFilterService.revoke(accessToken);
+
+        assertTrue(revocationFilterService.mightBeRevoked(accessToken.getTokenId()));
+        verify(revokedAccessTokenRepository).saveAll(anyList());
+    }
+
+    @Test
+    public void mightBeRevoked_ifTokenWasRevokedOnAnotherInstance_returnsTrueAfterSync() {
+        revocationFilterService.init();
+
+        UUID tokenId = UUID.randomUUID();
+
+        when(revokedAccessTokenRepository.findByRevokedAtAfter(any(Date.class)))
+                .thenReturn(Collections.singletonList(new RevokedAccessToken(tokenId, Date.from(Instant.now().plusSeconds(600)))));
+
+        revocationFilterService.synchronize();
+
+        assertTrue(revocationFilterService.mightBeRevoked(tokenId));
+    }
+
+    @Test
+    public void mightBeRevoked_ifRevokedTokenExpired_returnsFalseAfterSync() throws Exception {
+        revocationFilterService.init();
+
+        AccessToken accessToken = createAccessToken(Instant.now().plusMillis(50));
+
+        revocationFilterService.revoke(accessToken);
+        // the slice of the token ends at most one slice after the token expired
+        Thread.sleep(1100);
+        revocationFilterService.synchronize();
+
+        assertFalse(revocationFilterService.mightBeRevoked(accessToken.getTokenId()));
+    }
+
+    @Test
+    public void synchronize_dropsFiltersOfEndedSlicesOnly() throws Exception {
+        revocationFilterService.init();
+
+        AccessToken expiringAccessToken = createAccessToken(Instant.now().plusMillis(50));
+        AccessToken accessToken = createAccessToken(Instant.now().plusSeconds(600));
+
+        revocationFilterService.revoke(expiringAccessToken);
+        revocationFilterService.revoke(accessToken);
+
+        double memoryInBytes = meterRegistry.get("jwt.revocation.filter.memory").gauge().value();
+
+        Thread.sleep(1100);
+        revocationFilterService.synchronize();
+
+        assertEquals(memoryInBytes / 2, meterRegistry.get("jwt.revocation.filter.memory").gauge().value(), 0.0);
+        assertEquals(1.0, meterRegistry.get("jwt.revocation.filter.entries").gauge().value(), 0.0);
+        assertTrue(revocationFilterService.mightBeRevoked(accessToken.getTokenId()));
+    }
+
+    @Test
+    public void synchronize_ifRevocationIsSynchronizedAgain_countsItOnce() {
+        revocationFilterService.init();
+
+        RevokedAccessToken revokedAccessToken = new RevokedAccessToken(UUID.randomUUID(), Date.from(Instant.now().plusSeconds(600)));
+
+        when(revokedAccessTokenRepository.findByRevokedAtAfter(any(Date.class))).thenReturn(Collections.singletonList(revokedAccessToken));
+
+        revocationFilterService.synchronize();
+        revocationFilterService.synchronize();
+
+        assertEquals(1.0, meterRegistry.get("jwt.revocation.filter.entries").gauge().value(), 0.0);
+    }
+
+    @Test
+    public void mightBeRevoked_ifRevocationsWereStoredBeforeStartup_returnsTrue() {
+        UUID tokenId = UUID.randomUUID();
+
+        when(revokedAccessTokenRepository.findByExpirationDateAfter(any(Date.class)))
+                .thenReturn(Collections.singletonList(new RevokedAccessToken(tokenId, Date.from(Instant.now().plusSeconds(600)))));
+
+        revocationFilterService.init();
+
+        assertTrue(revocationFilterService.mightBeRevoked(tokenId));
+    }
+
+    @Test
+    public void mightBeRevoked_forTokensThatWereNotRevoked_mostlyReturnsFalse() {
+        revocationFilterService.init();
+
+        for (int index = 0; index < 1000; index++) {
+            revocationFilterService.revoke(createAccessToken(Instant.now().plusSeconds(600)));
+        }
+
+        int falsePositives = 0;
+
+        for (int index = 0; index < 10000; index++) {
+            if (revocationFilterService.mightBeRevoked(UUID.randomUUID())) {
+                falsePositives++;
+            }
+        }
+
+        assertTrue(falsePositives < 300);
+    }
+
+    @Test
+    public void revoke_ifTokenHasNoId_doesNotStoreRevocation() {
+        revocationFilterService.init();
+
+        RefreshToken refreshToken = new RefreshToken(JwtTokenType.REFRESH_TOKEN, UUID.randomUUID());
+
+        refreshToken.setExpirationDate(Date.from(Instant.now().plusSeconds(600)));
+        revocationFilterService.revoke(refreshToken);
+
+        verify(revokedAccessTokenRepository, never()).saveAll(anyList());
+    }
+
+    private AccessToken createAccessToken(Instant expirationDate) {
+        AccessToken accessToken = new AccessToken(JwtTokenType.ACCESS_TOKEN, UUID.randomUUID());
+
+        accessToken.setExpirationDate(Date.from(expirationDate));
+
+        return accessToken;
+    }
+}
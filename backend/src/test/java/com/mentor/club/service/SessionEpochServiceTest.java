@@ -0,0 +1,63 @@
+package com.mentor.club.service;
+
+import com.mentor.club.model.authentication.token.factories.SecureRandomPool;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SessionEpochServiceTest {
+    private SessionEpochService sessionEpochService;
+
+    @Before
+    public void init() {
+        sessionEpochService = createSessionEpochService();
+    }
+
+    @Test
+    public void isCurrentEpoch_ifEpochWasHandedOut_returnsTrue() {
+        Long epoch = sessionEpochService.getCurrentEpoch("test-username");
+
+        assertTrue(sessionEpochService.isCurrentEpoch("test-username", epoch));
+    }
+
+    @Test
+    public void isCurrentEpoch_ifEpochWasBumped_returnsFalse() {
+        Long epoch = sessionEpochService.getCurrentEpoch("test-username");
+
+        sessionEpochService.bumpEpoch("test-username");
+
+        assertFalse(sessionEpochService.isCurrentEpoch("test-username", epoch));
+        assertTrue(sessionEpochService.isCurrentEpoch("test-username", sessionEpochService.getCurrentEpoch("test-username")));
+    }
+
+    @Test
+    public void isCurrentEpoch_ifEpochIsMissingOrUserIsUnknown_returnsFalse() {
+        Long epoch = sessionEpochService.getCurrentEpoch("test-username");
+
+        assertFalse(sessionEpochService.isCurrentEpoch("test-username", null));
+        assertFalse(sessionEpochService.isCurrentEpoch("other-username", epoch));
+    }
+
+    @Test
+    public void isCurrentEpoch_ifEpochIsFromOtherInstance_returnsFalse() {
+        SessionEpochService otherSessionEpochService = createSessionEpochService();
+        Long currentEpoch = sessionEpochService.getCurrentEpoch("test-username");
+
+        // epochs bumped on the other instance must not catch up with the epochs of this one
+        for (int bump = 0; bump < 1000; bump++) {
+            otherSessionEpochService.bumpEpoch("test-username");
+
+            Long otherEpoch = otherSessionEpochService.getCurrentEpoch("test-username");
+
+            assertFalse(sessionEpochService.isCurrentEpoch("test-username", otherEpoch));
+            assertFalse(otherSessionEpochService.isCurrentEpoch("test-username", currentEpoch));
+        }
+    }
+
+    private SessionEpochService createSessionEpochService() {
+        return new SessionEpochService(100, new SecureRandomPool(), new SimpleMeterRegistry());
+    }
+}
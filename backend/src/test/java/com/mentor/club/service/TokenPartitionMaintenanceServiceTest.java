@@ -0,0 +1,135 @@
+package com.mentor.club.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class TokenPartitionMaintenanceServiceTest {
+    private static final DateTimeFormatter PARTITION_SUFFIX_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    private JdbcTemplate jdbcTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private TokenPartitionMaintenanceService tokenPartitionMaintenanceService;
+
+    @Before
+    public void init() {
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+
+        jdbcTemplate = mock(JdbcTemplate.class);
+        meterRegistry = new SimpleMeterRegistry();
+        tokenPartitionMaintenanceService = new TokenPartitionMaintenanceService(jdbcTemplate, transactionManager, meterRegistry);
+
+        when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+
+        ReflectionTestUtils.setField(tokenPartitionMaintenanceService, "enabled", true);
+        ReflectionTestUtils.setField(tokenPartitionMaintenanceService, "daysAheadBuffer", 2);
+        ReflectionTestUtils.setField(tokenPartitionMaintenanceService, "retentionAfterExpirationInDays", 1);
+    }
+
+    @Test
+    public void maintainPartitions_createsPartitionsCoveringTheTokenLifetime() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class), anyString())).thenReturn(true);
+
+        tokenPartitionMaintenanceService.maintainPartitions();
+
+        String lastRefreshTokenPartition = "refresh_token_p" + LocalDate.now().plusDays(32).format(PARTITION_SUFFIX_FORMATTER);
+
+        verify(jdbcTemplate).execute(startsWith("CREATE TABLE IF NOT EXISTS " + lastRefreshTokenPartition + " PARTITION OF refresh_token"));
+        verify(jdbcTemplate, times(3)).execute(contains("PARTITION OF access_token "));
+    }
+
+    @Test
+    public void maintainPartitions_dropsOnlyPartitionsPastTheRetention() {
+        String expiredPartition = "access_token_p" + LocalDate.now().minusDays(2).format(PARTITION_SUFFIX_FORMATTER);
+        String retainedPartition = "access_token_p" + LocalDate.now().minusDays(1).format(PARTITION_SUFFIX_FORMATTER);
+
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class), anyString())).thenReturn(true);
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), eq("access_token")))
+                .thenReturn(Arrays.asList(expiredPartition, retainedPartition, "access_token_default"));
+
+        tokenPartitionMaintenanceService.maintainPartitions();
+
+        verify(jdbcTemplate).execute("ALTER TABLE access_token DETACH PARTITION " + expiredPartition);
+        verify(jdbcTemplate).execute("DROP TABLE " + expiredPartition);
+        verify(jdbcTemplate, never()).execute("DROP TABLE " + retainedPartition);
+        verify(jdbcTemplate, never()).execute("DROP TABLE access_token_default");
+    }
+
+    @Test
+    public void maintainPartitions_ifAccessTokensAreUnlogged_createsAndSwitchesAccessTokenPartitionsToUnlogged() {
+        ReflectionTestUtils.setField(tokenPartitionMaintenanceService, "accessTokenUnlogged", true);
+
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class), anyString())).thenReturn(true);
+        when(jdbcTemplate.queryForList(contains("relpersistence"), eq(String.class), eq("access_token"), eq("u")))
+                .thenReturn(Arrays.asList("access_token_default"));
+
+        tokenPartitionMaintenanceService.maintainPartitions();
+
+        verify(jdbcTemplate).execute("ALTER TABLE access_token_default SET UNLOGGED");
+        verify(jdbcTemplate, times(3)).execute(startsWith("CREATE UNLOGGED TABLE IF NOT EXISTS access_token_p"));
+        verify(jdbcTemplate, never()).execute(startsWith("CREATE UNLOGGED TABLE IF NOT EXISTS refresh_token_p"));
+    }
+
+    @Test
+    public void maintainPartitions_ifDefaultPartitionHoldsRowsOfNewPartition_movesThemIntoIt() {
+        String partition = "access_token_p" + LocalDate.now().plusDays(1).format(PARTITION_SUFFIX_FORMATTER);
+
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class), anyString())).thenReturn(true);
+        when(jdbcTemplate.queryForObject(contains("to_regclass"), eq(Boolean.class), eq(partition), any(), any())).thenReturn(true);
+
+        tokenPartitionMaintenanceService.maintainPartitions();
+
+        InOrder inOrder = inOrder(jdbcTemplate);
+
+        inOrder.verify(jdbcTemplate).execute("ALTER TABLE access_token DETACH PARTITION access_token_default");
+        inOrder.verify(jdbcTemplate).execute(startsWith("CREATE TABLE IF NOT EXISTS " + partition + " PARTITION OF access_token"));
+        inOrder.verify(jdbcTemplate).update(contains("DELETE FROM access_token_default"), (Object) any(), (Object) any());
+        inOrder.verify(jdbcTemplate).execute("ALTER TABLE access_token ATTACH PARTITION access_token_default DEFAULT");
+        verify(jdbcTemplate, times(1)).execute("ALTER TABLE access_token DETACH PARTITION access_token_default");
+    }
+
+    @Test
+    public void maintainPartitions_ifPartitionCanNotBeCreated_rollsBackItsSavepointAndCarriesOn() {
+        String failingPartition = "access_token_p" + LocalDate.now().format(PARTITION_SUFFIX_FORMATTER);
+        String expiredPartition = "access_token_p" + LocalDate.now().minusDays(2).format(PARTITION_SUFFIX_FORMATTER);
+
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class), anyString())).thenReturn(true);
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), eq("access_token"))).thenReturn(Arrays.asList(expiredPartition));
+        doThrow(new DataIntegrityViolationException("updated partition constraint for default partition would be violated"))
+                .when(jdbcTemplate).execute(startsWith("CREATE TABLE IF NOT EXISTS " + failingPartition));
+
+        tokenPartitionMaintenanceService.maintainPartitions();
+
+        verify(jdbcTemplate, times(1)).execute("ROLLBACK TO SAVEPOINT create_partition");
+        // the failing day is attempted, the days after it are still created
+        verify(jdbcTemplate, times(3)).execute(startsWith("CREATE TABLE IF NOT EXISTS access_token_p"));
+        verify(jdbcTemplate, atLeastOnce()).execute(startsWith("CREATE TABLE IF NOT EXISTS refresh_token_p"));
+        verify(jdbcTemplate).execute("DROP TABLE " + expiredPartition);
+        assertEquals(1.0, meterRegistry.counter("jwt.token.partitions.failed", "table", "access_token").count(), 0.0);
+    }
+
+    @Test
+    public void maintainPartitions_ifAnotherInstanceHoldsTheLock_skipsTheTable() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class), anyString())).thenReturn(false);
+
+        tokenPartitionMaintenanceService.maintainPartitions();
+
+        verify(jdbcTemplate, never()).execute(anyString());
+    }
+}
@@ -0,0 +1,123 @@
+package com.mentor.club.service;
+
+import com.mentor.club.model.user.User;
+import com.mentor.club.repository.IUserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class UserCacheServiceTest {
+    private IUserRepository userRepository;
+
+    private UserCacheService userCacheService;
+
+    @Before
+    public void init() {
+        userRepository = mock(IUserRepository.class);
+        userCacheService = new UserCacheService(userRepository, 100, 30, 5, new SimpleMeterRegistry());
+    }
+
+    @Test
+    public void findUserByUsername_ifCalledTwice_queriesRepositoryOnce() {
+        User user = createUser();
+
+        when(userRepository.findUserByUsername("test-username")).thenReturn(Optional.of(user));
+
+        userCacheService.findUserByUsername("test-username");
+        Optional<User> cachedUser = userCacheService.findUserByUsername("test-username");
+
+        assertTrue(cachedUser.isPresent());
+        assertEquals(user.getId(), cachedUser.get().getId());
+        verify(userRepository, times(1)).findUserByUsername("test-username");
+    }
+
+    @Test
+    public void findUserByUsername_ifUserIsUnknown_cachesEmptyResult() {
+        when(userRepository.findUserByUsername("unknown-username")).thenReturn(Optional.empty());
+
+        userCacheService.findUserByUsername("unknown-username");
+
+        assertFalse(userCacheService.findUserByUsername("unknown-username").isPresent());
+        verify(userRepository, times(1)).findUserByUsername("unknown-username");
+    }
+
+    @Test
+    public void findUserByUsername_ifReturnedUserIsModified_doesNotModifyCachedUser() {
+        when(userRepository.findUserByUsername("test-username")).thenReturn(Optional.of(createUser()));
+
+        userCacheService.findUserByUsername("test-username").get().setHashedPassword("modified-password");
+
+        assertEquals("test-password", userCacheService.findUserByUsername("test-username").get().getHashedPassword());
+    }
+
+    @Test
+    public void save_evictsUserByIdUsernameAndEmail() {
+        User user = createUser();
+
+        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+        when(userRepository.findUserByUsername("test-username")).thenReturn(Optional.of(user));
+        when(userRepository.findUserByEmail("test-email")).thenReturn(Optional.of(user));
+
+        userCacheService.findById(user.getId());
+        userCacheService.findUserByUsername("test-username");
+        userCacheService.findUserByEmail("test-email");
+        userCacheService.save(user);
+        userCacheService.findById(user.getId());
+        userCacheService.findUserByUsername("test-username");
+        userCacheService.findUserByEmail("test-email");
+
+        verify(userRepository).save(user);
+        verify(userRepository, times(2)).findById(user.getId());
+        verify(userRepository, times(2)).findUserByUsername("test-username");
+        verify(userRepository, times(2)).findUserByEmail("test-email");
+    }
+
+    @Test
+    public void save_ifUsernameWasCachedAsUnknown_evictsEmptyResult() {
+        User user = createUser();
+
+        when(userRepository.findUserByUsername("test-username")).thenReturn(Optional.empty());
+
+        userCacheService.findUserByUsername("test-username");
+
+        when(userRepository.findUserByUsername("test-username")).thenReturn(Optional.of(user));
+
+        userCacheService.save(user);
+
+        assertTrue(userCacheService.findUserByUsername("test-username").isPresent());
+    }
+
+    @Test
+    public void delete_evictsUser() {
+        User user = createUser();
+
+        when(userRepository.findUserByEmail("test-email")).thenReturn(Optional.of(user));
+
+        userCacheService.findUserByEmail("test-email");
+
+        when(userRepository.findUserByEmail("test-email")).thenReturn(Optional.empty());
+
+        userCacheService.delete(user);
+
+        assertFalse(userCacheService.findUserByEmail("test-email").isPresent());
+        verify(userRepository).delete(user);
+    }
+
+    private User createUser() {
+        User user = new User();
+
+        ReflectionTestUtils.setField(user, "id", UUID.randomUUID());
+        user.setUsername("test-username");
+        user.setEmail("test-email");
+        user.setHashedPassword("test-password");
+
+        return user;
+    }
+}
@@ -0,0 +1,251 @@
+package com.mentor.club.service;
+
+import com.mentor.club.model.authentication.AuthenticationRequest;
+import com.mentor.club.model.authentication.AuthenticationResult;
+import com.mentor.club.model.authentication.token.DeviceSession;
+import com.mentor.club.model.authentication.token.concretes.AccessToken;
+import com.mentor.club.model.authentication.token.concretes.EmailConfirmToken;
+import com.mentor.club.model.authentication.token.concretes.RefreshToken;
+import com.mentor.club.model.authentication.token.enums.JwtTokenType;
+import com.mentor.club.model.user.NewUser;
+import com.mentor.club.model.user.User;
+import com.mentor.club.model.user.UserStatus;
+import com.mentor.club.repository.IEmailConfirmTokenRepository;
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.*;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.servlet.http.Cookie;
+import java.sql.SQLException;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class UserServiceTest {
+    @InjectMocks
+    private UserService userService;
+
+    @Mock
+    private UserCacheService userCacheService;
+
+    @Mock
+    private IEmailConfirmTokenRepository emailConfirmTokenRepository;
+
+    @Mock
+    private AwsService awsService;
+
+    @Mock
+    private JwtService jwtService;
+
+    @Mock
+    private PasswordService passwordService;
+
+    @Mock
+    private UserThumbnailService userThumbnailService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Before
+    public void init() {
+        ReflectionTestUtils.setField(userService, "backendDeploymentUrl", "http://localhost");
+
+        lenient().when(userThumbnailService.fromBase64(any())).thenReturn(Optional.empty());
+        lenient().when(passwordService.hashPassword(anyString())).thenReturn("hashed-password");
+    }
+
+    @Test
+    public void createNewUser_createsUserAndTokenInOneTransactionAndSendsEmailAfterCommit() {
+        EmailConfirmToken emailConfirmToken = new EmailConfirmToken(JwtTokenType.EMAIL_CONFIRM_TOKEN);
+
+        emailConfirmToken.setToken("email-confirm-token");
+
+        when(userCacheService.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(jwtService.createJwtToken(any(User.class), anyLong(), eq(emailConfirmTokenRepository), eq(JwtTokenType.EMAIL_CONFIRM_TOKEN))).thenReturn(emailConfirmToken);
+        when(awsService.sendConfirmationEmail(anyString(), any(User.class), anyString())).thenReturn(HttpStatus.ACCEPTED);
+
+        ResponseEntity response = userService.createNewUser(createNewUser());
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+
+        InOrder inOrder = inOrder(transactionManager, userCacheService, jwtService, awsService);
+
+        inOrder.verify(transactionManager).getTransaction(any());
+        inOrder.verify(userCacheService).save(any(User.class));
+        inOrder.verify(jwtService).createJwtToken(any(User.class), anyLong(), eq(emailConfirmTokenRepository), eq(JwtTokenType.EMAIL_CONFIRM_TOKEN));
+        inOrder.verify(transactionManager).commit(any());
+        inOrder.verify(awsService).sendConfirmationEmail(eq("http://localhost/user/confirm-email/email-confirm-token"), any(User.class), eq("email-confirm-token"));
+        verify(userCacheService, never()).findUserByUsername(anyString());
+        verify(userCacheService, never()).findUserByEmail(anyString());
+    }
+
+    @Test
+    public void createNewUser_ifUsernameIsTaken_returnsBadRequestAndRollsBack() {
+        when(userCacheService.save(any(User.class))).thenThrow(createUniqueViolation("users_username_key"));
+
+        ResponseEntity response = userService.createNewUser(createNewUser());
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertTrue(response.getBody().toString().contains("test-username"));
+        assertTrue(response.getBody().toString().contains("already in use!"));
+        verify(transactionManager, times(1)).rollback(any());
+        verify(awsService, never()).sendConfirmationEmail(anyString(), any(User.class), anyString());
+    }
+
+    @Test
+    public void createNewUser_ifEmailIsTaken_returnsBadRequestWithUsernameOfTheEmail() {
+        User userWithEmail = new User();
+
+        userWithEmail.setUsername("other-username");
+
+        when(userCacheService.save(any(User.class))).thenThrow(createUniqueViolation("users_email_key"));
+        when(userCacheService.findUserByEmail("test-email")).thenReturn(Optional.of(userWithEmail));
+
+        ResponseEntity response = userService.createNewUser(createNewUser());
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertTrue(response.getBody().toString().contains("email already in use by user with username"));
+        assertTrue(response.getBody().toString().contains("other-username"));
+        verify(awsService, never()).sendConfirmationEmail(anyString(), any(User.class), anyString());
+    }
+
+    @Test
+    public void createNewUser_ifOtherConstraintIsViolated_returnsInternalServerError() {
+        when(userCacheService.save(any(User.class))).thenThrow(createUniqueViolation("users_pkey"));
+
+        ResponseEntity response = userService.createNewUser(createNewUser());
+
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+    }
+
+    @Test
+    public void authenticate_ifCredentialsAreCorrect_loadsUserAndVerifiesPasswordOnce() {
+        User user = createUser(UserStatus.CREATED_CONFIRMED_EMAIL);
+        AccessToken accessToken = new AccessToken(JwtTokenType.ACCESS_TOKEN, UUID.randomUUID());
+        RefreshToken refreshToken = new RefreshToken(JwtTokenType.REFRESH_TOKEN, UUID.randomUUID());
+
+        accessToken.setToken("access-token");
+        refreshToken.setToken("refresh-token");
+
+        when(userCacheService.findUserByUsername("test-username")).thenReturn(Optional.of(user));
+        when(passwordService.isProvidedPasswordCorrect("test-password", "hashed-password")).thenReturn(true);
+        when(jwtService.createDeviceSession(eq(user), any(UUID.class))).thenReturn(new DeviceSession(accessToken, refreshToken));
+        when(jwtService.createCookieWithRefreshToken("refresh-token")).thenReturn(new Cookie("refreshToken", "refresh-token"));
+
+        ResponseEntity response = userService.authenticate(createAuthenticationRequest(), new MockHttpServletResponse());
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("access-token", ((AuthenticationResult) response.getBody()).getToken());
+        verify(userCacheService, times(1)).findUserByUsername("test-username");
+        verify(passwordService, times(1)).isProvidedPasswordCorrect("test-password", "hashed-password");
+        verify(passwordService, times(1)).rehashIfNeeded(user, "test-password");
+    }
+
+    @Test
+    public void authenticate_ifPasswordIsWrong_returnsUnauthorizedWithoutUserDetails() {
+        User user = createUser(UserStatus.CREATED_UNCONFIRMED_EMAIL);
+
+        when(userCacheService.findUserByUsername("test-username")).thenReturn(Optional.of(user));
+        when(passwordService.isProvidedPasswordCorrect("test-password", "hashed-password")).thenReturn(false);
+
+        ResponseEntity response = userService.authenticate(createAuthenticationRequest(), new MockHttpServletResponse());
+
+        assertEquals(HttpStatus.UNAUTHORIZED, response.getStatusCode());
+        assertTrue(response.getBody() instanceof String);
+        verify(jwtService, never()).createDeviceSession(any(User.class), any(UUID.class));
+        verify(passwordService, never()).rehashIfNeeded(any(User.class), anyString());
+    }
+
+    @Test
+    public void authenticate_ifEmailIsNotConfirmed_returnsForbiddenWithUserDetails() {
+        User user = createUser(UserStatus.CREATED_UNCONFIRMED_EMAIL);
+
+        when(userCacheService.findUserByUsername("test-username")).thenReturn(Optional.of(user));
+        when(passwordService.isProvidedPasswordCorrect("test-password", "hashed-password")).thenReturn(true);
+
+        ResponseEntity response = userService.authenticate(createAuthenticationRequest(), new MockHttpServletResponse());
+
+        assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
+        assertEquals("test-email", ((AuthenticationResult) response.getBody()).getEmail());
+        verify(passwordService, times(1)).isProvidedPasswordCorrect("test-password", "hashed-password");
+        verify(jwtService, never()).createDeviceSession(any(User.class), any(UUID.class));
+    }
+
+    @Test
+    public void authenticate_ifDeviceIdIsMissing_returnsBadRequestWithoutVerifyingPassword() {
+        AuthenticationRequest authenticationRequest = createAuthenticationRequest();
+
+        authenticationRequest.setDeviceId(null);
+
+        when(userCacheService.findUserByUsername("test-username")).thenReturn(Optional.of(createUser(UserStatus.CREATED_CONFIRMED_EMAIL)));
+
+        ResponseEntity response = userService.authenticate(authenticationRequest, new MockHttpServletResponse());
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verify(passwordService, never()).isProvidedPasswordCorrect(anyString(), anyString());
+    }
+
+    @Test
+    public void authenticate_ifUserIsUnknown_returnsNotFound() {
+        when(userCacheService.findUserByUsername("test-username")).thenReturn(Optional.empty());
+
+        ResponseEntity response = userService.authenticate(createAuthenticationRequest(), new MockHttpServletResponse());
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        verify(passwordService, never()).isProvidedPasswordCorrect(anyString(), anyString());
+    }
+
+    private static User createUser(UserStatus userStatus) {
+        User user = new User();
+
+        user.setUsername("test-username");
+        user.setEmail("test-email");
+        user.setName("test-name");
+        user.setHashedPassword("hashed-password");
+        user.setUserStatus(userStatus);
+
+        return user;
+    }
+
+    private static AuthenticationRequest createAuthenticationRequest() {
+        AuthenticationRequest authenticationRequest = new AuthenticationRequest();
+
+        authenticationRequest.setUsername("test-username");
+        authenticationRequest.setPassword("test-password");
+        authenticationRequest.setDeviceId(UUID.randomUUID());
+
+        return authenticationRequest;
+    }
+
+    private static DataIntegrityViolationException createUniqueViolation(String constraintName) {
+        SQLException sqlException = new SQLException("duplicate key value violates unique constraint \"" + constraintName + "\"", "23505");
+
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("could not execute statement", sqlException, constraintName));
+    }
+
+    private static NewUser createNewUser() {
+        NewUser newUser = new NewUser();
+
+        newUser.setUsername("test-username");
+        newUser.setEmail("test-email");
+        newUser.setPassword("test-password");
+        newUser.setName("test-name");
+
+        return newUser;
+    }
+}
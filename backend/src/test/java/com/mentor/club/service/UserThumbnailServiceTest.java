@@ -0,0 +1,127 @@
+package com.mentor.club.service;
+
+import com.mentor.club.exception.InternalException;
+import com.mentor.club.model.user.User;
+import com.mentor.club.model.user.UserThumbnail;
+import com.mentor.club.repository.IUserThumbnailRepository;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class UserThumbnailServiceTest {
+    private static final byte[] IMAGE = "test-image".getBytes(StandardCharsets.UTF_8);
+
+    private IUserThumbnailRepository userThumbnailRepository;
+
+    private UserThumbnailService userThumbnailService;
+
+    @Before
+    public void init() {
+        userThumbnailRepository = mock(IUserThumbnailRepository.class);
+        userThumbnailService = new UserThumbnailService(userThumbnailRepository);
+
+        ReflectionTestUtils.setField(userThumbnailService, "backendDeploymentUrl", "http://localhost");
+        ReflectionTestUtils.setField(userThumbnailService, "maxAgeInSeconds", 60L);
+    }
+
+    @Test
+    public void fromBase64_ifThumbnailIsDataUrl_decodesImageAndContentType() {
+        Optional<UserThumbnail> userThumbnail = userThumbnailService.fromBase64("data:image/png;base64," + Base64.getEncoder().encodeToString(IMAGE));
+
+        assertTrue(userThumbnail.isPresent());
+        assertArrayEquals(IMAGE, userThumbnail.get().getImage());
+        assertEquals("image/png", userThumbnail.get().getContentType());
+        assertEquals(32, userThumbnail.get().getVersion().length());
+    }
+
+    @Test
+    public void fromBase64_ifContentTypeIsNotRasterImage_usesOctetStream() {
+        Optional<UserThumbnail> userThumbnail = userThumbnailService.fromBase64("data:image/svg+xml;base64," + Base64.getEncoder().encodeToString(IMAGE));
+
+        assertEquals(MediaType.APPLICATION_OCTET_STREAM_VALUE, userThumbnail.get().getContentType());
+    }
+
+    @Test
+    public void fromBase64_ifThumbnailIsEmpty_returnsEmpty() {
+        assertFalse(userThumbnailService.fromBase64(null).isPresent());
+        assertFalse(userThumbnailService.fromBase64("").isPresent());
+    }
+
+    @Test(expected = InternalException.class)
+    public void fromBase64_ifThumbnailIsNotBase64_throwsInternalException() {
+        userThumbnailService.fromBase64("not base64!");
+    }
+
+    @Test
+    public void getThumbnailUrl_containsUserIdAndVersion() {
+        User user = new User();
+
+        ReflectionTestUtils.setField(user, "id", UUID.randomUUID());
+        user.setThumbnailVersion("test-version");
+
+        assertEquals("http://localhost/user/" + user.getId() + "/thumbnail?version=test-version", userThumbnailService.getThumbnailUrl(user));
+    }
+
+    @Test
+    public void getThumbnailUrl_ifUserHasNoThumbnail_returnsNull() {
+        assertNull(userThumbnailService.getThumbnailUrl(new User()));
+    }
+
+    @Test
+    public void getThumbnail_returnsImageWithETagAndCacheControl() {
+        UUID userId = UUID.randomUUID();
+        UserThumbnail userThumbnail = createUserThumbnail();
+
+        when(userThumbnailRepository.findById(userId)).thenReturn(Optional.of(userThumbnail));
+
+        ResponseEntity<byte[]> response = userThumbnailService.getThumbnail(userId, Optional.empty());
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertArrayEquals(IMAGE, response.getBody());
+        assertEquals("\"test-version\"", response.getHeaders().getETag());
+        assertEquals("max-age=60, public", response.getHeaders().getCacheControl());
+    }
+
+    @Test
+    public void getThumbnail_ifETagMatches_returnsNotModified() {
+        UUID userId = UUID.randomUUID();
+
+        when(userThumbnailRepository.findById(userId)).thenReturn(Optional.of(createUserThumbnail()));
+
+        ResponseEntity<byte[]> response = userThumbnailService.getThumbnail(userId, Optional.of("\"test-version\""));
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertNull(response.getBody());
+    }
+
+    @Test
+    public void getThumbnail_ifUserHasNoThumbnail_returnsNotFound() {
+        UUID userId = UUID.randomUUID();
+
+        when(userThumbnailRepository.findById(userId)).thenReturn(Optional.empty());
+
+        assertEquals(HttpStatus.NOT_FOUND, userThumbnailService.getThumbnail(userId, Optional.empty()).getStatusCode());
+    }
+
+    private UserThumbnail createUserThumbnail() {
+        UserThumbnail userThumbnail = new UserThumbnail();
+
+        userThumbnail.setContentType("image/png");
+        userThumbnail.setImage(IMAGE);
+        userThumbnail.setVersion("test-version");
+
+        return userThumbnail;
+    }
+}
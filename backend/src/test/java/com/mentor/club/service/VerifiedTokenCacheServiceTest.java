@@ -0,0 +1,76 @@
+package com.mentor.club.service;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static com.mentor.club.service.RsaService.USERNAME_CLAIM;
+import static org.junit.Assert.assertEquals;
+
+public class VerifiedTokenCacheServiceTest {
+    private VerifiedTokenCacheService verifiedTokenCacheService;
+
+    private AtomicInteger verificationCount;
+
+    private Function<String, DecodedJWT> verifier;
+
+    @Before
+    public void init() {
+        verifiedTokenCacheService = new VerifiedTokenCacheService(100, new SimpleMeterRegistry());
+        verificationCount = new AtomicInteger();
+        verifier = token -> {
+            verificationCount.incrementAndGet();
+
+            return JWT.decode(token);
+        };
+    }
+
+    @Test
+    public void getOrVerify_ifTokenWasVerifiedBefore_doesNotVerifyAgain() {
+        String token = createToken("test-username", 60);
+
+        verifiedTokenCacheService.getOrVerify(token, verifier);
+        verifiedTokenCacheService.getOrVerify(token, verifier);
+
+        assertEquals(1, verificationCount.get());
+    }
+
+    @Test
+    public void getOrVerify_ifTokenIsExpired_verifiesAgain() {
+        String token = createToken("test-username", -1);
+
+        verifiedTokenCacheService.getOrVerify(token, verifier);
+        verifiedTokenCacheService.getOrVerify(token, verifier);
+
+        assertEquals(2, verificationCount.get());
+    }
+
+    @Test
+    public void getOrVerify_ifTokensOfUserWereInvalidated_verifiesAgain() {
+        String token = createToken("test-username", 60);
+        String tokenOfOtherUser = createToken("other-username", 60);
+
+        verifiedTokenCacheService.getOrVerify(token, verifier);
+        verifiedTokenCacheService.getOrVerify(tokenOfOtherUser, verifier);
+        verifiedTokenCacheService.invalidateAllForUser("test-username");
+        verifiedTokenCacheService.getOrVerify(token, verifier);
+        verifiedTokenCacheService.getOrVerify(tokenOfOtherUser, verifier);
+
+        assertEquals(3, verificationCount.get());
+    }
+
+    private String createToken(String username, long lifetimeInSeconds) {
+        return JWT.create()
+                .withExpiresAt(Date.from(Instant.now().plusSeconds(lifetimeInSeconds)))
+                .withClaim(USERNAME_CLAIM, username)
+                .sign(Algorithm.HMAC256("test-secret"));
+    }
+}
@@ -0,0 +1,51 @@
+package com.mentor.club.service.password;
+
+import com.mentor.club.model.authentication.token.factories.SecureRandomPool;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class Argon2idPasswordEncoderTest {
+    private Argon2idPasswordEncoder argon2idPasswordEncoder = new Argon2idPasswordEncoder(new SecureRandomPool(), 64, 2, 1);
+
+    @Test
+    public void encode_returnsPhcStringThatMatches() {
+        String hashedPassword = argon2idPasswordEncoder.encode("test-password");
+
+        assertTrue(hashedPassword.startsWith("$argon2id$v=19$m=64,t=2,p=1$"));
+        assertNotEquals(hashedPassword, argon2idPasswordEncoder.encode("test-password"));
+        assertTrue(argon2idPasswordEncoder.matches("test-password", hashedPassword));
+        assertFalse(argon2idPasswordEncoder.matches("wrong-password", hashedPassword));
+    }
+
+    @Test
+    public void matches_verifiesHashOfReferenceImplementation() {
+        // test vector of the argon2 reference implementation
+        String hashedPassword = "$argon2id$v=19$m=65536,t=2,p=1$c29tZXNhbHQ$CTFhFdXPJO1aFaMaO6Mm5c8y7cJHAph8ArZWb2GRPPc";
+
+        assertTrue(argon2idPasswordEncoder.matches("password", hashedPassword));
+        assertFalse(argon2idPasswordEncoder.matches("wrong-password", hashedPassword));
+        assertTrue(argon2idPasswordEncoder.needsRehash(hashedPassword));
+    }
+
+    @Test
+    public void matches_ifHashIsInvalid_throwsIllegalArgumentException() {
+        try {
+            argon2idPasswordEncoder.matches("test-password", "$argon2id$v=19$m=64$invalid");
+
+            fail();
+        } catch (IllegalArgumentException exception) {
+            // the hash has no salt
+        }
+    }
+
+    @Test
+    public void needsRehash_ifParametersDiffer_returnsTrue() {
+        Argon2idPasswordEncoder otherArgon2idPasswordEncoder = new Argon2idPasswordEncoder(new SecureRandomPool(), 128, 2, 1);
+
+        assertTrue(argon2idPasswordEncoder.needsRehash(otherArgon2idPasswordEncoder.encode("test-password")));
+        assertFalse(argon2idPasswordEncoder.needsRehash(argon2idPasswordEncoder.encode("test-password")));
+        assertTrue(argon2idPasswordEncoder.supports(otherArgon2idPasswordEncoder.encode("test-password")));
+        assertFalse(argon2idPasswordEncoder.supports("$2a$04$/UljyCSLBRCd0cb9H0mCquoR6ZsR68FJe1sXXXzIIwlCAymMyfNZ."));
+    }
+}
@@ -0,0 +1,69 @@
+package com.mentor.club.service.password;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.Assert.*;
+
+public class BCryptPasswordEncoderTest {
+    private SimpleMeterRegistry meterRegistry;
+
+    private BCryptPasswordEncoder bCryptPasswordEncoder;
+
+    @Before
+    public void init() {
+        meterRegistry = new SimpleMeterRegistry();
+        bCryptPasswordEncoder = new BCryptPasswordEncoder(meterRegistry);
+    }
+
+    @Test
+    public void calibrate_ifCostIsConfigured_usesIt() {
+        ReflectionTestUtils.setField(bCryptPasswordEncoder, "configuredCost", 5);
+        bCryptPasswordEncoder.calibrate();
+
+        assertEquals(5, bCryptPasswordEncoder.getCost());
+        assertEquals(5, BCryptPasswordEncoder.getCost(bCryptPasswordEncoder.encode("test-password")));
+        assertEquals(5.0, meterRegistry.get("password.hashing.bcrypt.cost").gauge().value(), 0.0);
+    }
+
+    @Test
+    public void calibrate_picksCostBetweenMinimumAndMaximum() {
+        ReflectionTestUtils.setField(bCryptPasswordEncoder, "minimumCost", 4);
+        ReflectionTestUtils.setField(bCryptPasswordEncoder, "maximumCost", 6);
+        ReflectionTestUtils.setField(bCryptPasswordEncoder, "targetLatencyInMilliseconds", 60000L);
+        bCryptPasswordEncoder.calibrate();
+
+        assertEquals(6, bCryptPasswordEncoder.getCost());
+
+        ReflectionTestUtils.setField(bCryptPasswordEncoder, "targetLatencyInMilliseconds", 0L);
+        bCryptPasswordEncoder.calibrate();
+
+        assertEquals(4, bCryptPasswordEncoder.getCost());
+    }
+
+    @Test
+    public void getCost_readsCostOfHash() {
+        assertEquals(10, BCryptPasswordEncoder.getCost("$2a$10$/UljyCSLBRCd0cb9H0mCquoR6ZsR68FJe1sXXXzIIwlCAymMyfNZ."));
+        assertEquals(4, BCryptPasswordEncoder.getCost("$2a$04$/UljyCSLBRCd0cb9H0mCquoR6ZsR68FJe1sXXXzIIwlCAymMyfNZ."));
+        assertEquals(-1, BCryptPasswordEncoder.getCost("not-a-bcrypt-hash"));
+        assertEquals(-1, BCryptPasswordEncoder.getCost(null));
+    }
+
+    @Test
+    public void supports_ifHashIsBCrypt_returnsTrue() {
+        assertTrue(bCryptPasswordEncoder.supports("$2a$04$/UljyCSLBRCd0cb9H0mCquoR6ZsR68FJe1sXXXzIIwlCAymMyfNZ."));
+        assertFalse(bCryptPasswordEncoder.supports("$argon2id$v=19$m=64,t=1,p=1$c2FsdA$aGFzaA"));
+        assertFalse(bCryptPasswordEncoder.supports(null));
+    }
+
+    @Test
+    public void needsRehash_ifCostDiffersFromCurrentCost_returnsTrue() {
+        ReflectionTestUtils.setField(bCryptPasswordEncoder, "configuredCost", 5);
+        bCryptPasswordEncoder.calibrate();
+
+        assertTrue(bCryptPasswordEncoder.needsRehash("$2a$04$/UljyCSLBRCd0cb9H0mCquoR6ZsR68FJe1sXXXzIIwlCAymMyfNZ."));
+        assertFalse(bCryptPasswordEncoder.needsRehash(bCryptPasswordEncoder.encode("test-password")));
+    }
+}
@@ -0,0 +1,39 @@
+package com.mentor.club.service.password;
+
+import com.mentor.club.model.authentication.token.factories.SecureRandomPool;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ScryptPasswordEncoderTest {
+    private ScryptPasswordEncoder scryptPasswordEncoder = new ScryptPasswordEncoder(new SecureRandomPool(), 4, 8, 1);
+
+    @Test
+    public void encode_returnsPhcStringThatMatches() {
+        String hashedPassword = scryptPasswordEncoder.encode("test-password");
+
+        assertTrue(hashedPassword.startsWith("$scrypt$ln=4,r=8,p=1$"));
+        assertTrue(scryptPasswordEncoder.matches("test-password", hashedPassword));
+        assertFalse(scryptPasswordEncoder.matches("wrong-password", hashedPassword));
+        assertFalse(scryptPasswordEncoder.needsRehash(hashedPassword));
+    }
+
+    @Test
+    public void matches_verifiesTestVectorOfRfc7914() {
+        String hashedPassword = "$scrypt$ln=10,r=8,p=16$TmFDbA$/bq+HJ00cgB4VucZDQHp/nxq18vII3gw53N2Y0s3MWIurzDZLiKjiG/xCSedmDDaxyevuUqD7m2DYMvfoswGQA";
+
+        assertTrue(scryptPasswordEncoder.matches("password", hashedPassword));
+        assertTrue(scryptPasswordEncoder.needsRehash(hashedPassword));
+    }
+
+    @Test
+    public void matches_ifCostIsTooHigh_throwsIllegalArgumentException() {
+        try {
+            scryptPasswordEncoder.matches("test-password", "$scrypt$ln=30,r=8,p=1$TmFDbA$aGFzaA");
+
+            fail();
+        } catch (IllegalArgumentException exception) {
+            // rejected before allocating the memory
+        }
+    }
+}